@@ -15,8 +15,10 @@ public class CommentsAdminController {
     private final CommentService commentService;
 
     @GetMapping
-    public List<CommentDto> getCommentsAdmin(@RequestParam Integer size, @RequestParam Integer from) {
-        return commentService.getCommentsAdmin(size, from);
+    public List<CommentDto> getCommentsAdmin(@RequestParam Integer size,
+                                             @RequestParam(defaultValue = "0") Integer from,
+                                             @RequestParam(required = false) Long afterId) {
+        return commentService.getCommentsAdmin(size, from, afterId);
     }
 
     @ResponseStatus(HttpStatus.NO_CONTENT)
@@ -0,0 +1,23 @@
+package ru.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.service.CommentCounters;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/comments")
+@RequiredArgsConstructor
+public class CommentsCountController {
+    private final CommentCounters commentCounters;
+
+    @GetMapping("/counts")
+    public Map<Long, Long> getCommentsCounts(@RequestParam List<Long> eventIds) {
+        return commentCounters.getCounts(eventIds);
+    }
+}
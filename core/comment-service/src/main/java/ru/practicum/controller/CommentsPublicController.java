@@ -1,8 +1,11 @@
 package ru.practicum.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.dto.event.EventWithCommentsDto;
+import ru.practicum.model.CommentCursor;
 import ru.practicum.service.CommentService;
 
 import java.util.List;
@@ -14,9 +17,21 @@ public class CommentsPublicController {
     private final CommentService commentService;
 
     @GetMapping
-    public List<CommentDto> getCommentsByEventId(@PathVariable Long eventId,
-                                                 @RequestParam(defaultValue = "0") Integer from,
-                                                 @RequestParam(defaultValue = "10") Integer size) {
-        return commentService.getCommentsByEventId(eventId, from, size);
+    public ResponseEntity<List<CommentDto>> getCommentsByEventId(@PathVariable Long eventId,
+                                                                 @RequestParam(defaultValue = "0") Integer from,
+                                                                 @RequestParam(defaultValue = "10") Integer size,
+                                                                 @RequestParam(required = false) String cursor) {
+        List<CommentDto> comments = commentService.getCommentsByEventId(eventId, from, size, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String next = CommentCursor.next(comments, size);
+        if (next != null) {
+            response.header(CommentCursor.NEXT_HEADER, next);
+        }
+        return response.body(comments);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/summary")
+    public EventWithCommentsDto getEventWithComments(@PathVariable Long eventId) {
+        return commentService.getEventWithComments(eventId);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.practicum.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.model.CommentCursor;
+import ru.practicum.service.CommentService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/users/{userId}/comments")
+@RequiredArgsConstructor
+public class CommentsUserController {
+    private final CommentService commentService;
+
+    @GetMapping
+    public ResponseEntity<List<CommentDto>> getCommentsByUserId(@PathVariable Long userId,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "10") Integer size) {
+        List<CommentDto> comments = commentService.getAllCommentsByUserId(userId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        String next = CommentCursor.next(comments, size);
+        if (next != null) {
+            response.header(CommentCursor.NEXT_HEADER, next);
+        }
+        return response.body(comments);
+    }
+}
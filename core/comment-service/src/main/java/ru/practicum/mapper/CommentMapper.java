@@ -37,5 +37,6 @@ public interface CommentMapper {
     @Mapping(target = "state", source = "event.state")
     @Mapping(target = "publishedOn", source = "event.publishedOn")
     @Mapping(target = "comments", source = "comments")
-    EventWithCommentsDto toDto(EventFullDto event, List<CommentDto> comments);
+    @Mapping(target = "commentsCount", source = "commentsCount")
+    EventWithCommentsDto toDto(EventFullDto event, List<CommentDto> comments, Long commentsCount);
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "comment_counters")
+public class CommentCounter {
+    @Id
+    @Column(name = "event_id")
+    Long eventId;
+
+    @Column(name = "comments_count", nullable = false)
+    Long commentsCount;
+}
@@ -0,0 +1,44 @@
+package ru.practicum.model;
+
+import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Позиция в ленте комментариев: время создания и id последнего полученного комментария.
+ * Передаётся клиенту непрозрачной строкой, поэтому следующая страница не зависит от того,
+ * существует ли ещё этот комментарий и записан ли он уже в БД.
+ */
+public record CommentCursor(LocalDateTime created, Long id) {
+    public static final String NEXT_HEADER = "X-Next-Cursor";
+
+    /**
+     * Курсор следующей страницы или null, если страница неполная и дальше комментариев нет.
+     */
+    public static String next(List<CommentDto> page, int size) {
+        return page.isEmpty() || page.size() < size ? null : after(page.getLast()).encode();
+    }
+
+    public static CommentCursor after(CommentDto comment) {
+        return new CommentCursor(comment.getCreated(), comment.getId());
+    }
+
+    public static CommentCursor decode(String cursor) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new CommentCursor(LocalDateTime.parse(parts[0]), Long.parseLong(parts[1]));
+        } catch (IllegalArgumentException | DateTimeParseException | ArrayIndexOutOfBoundsException e) {
+            throw new ValidationException("Некорректный курсор ленты комментариев: " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((created + "|" + id).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,11 @@
+package ru.practicum.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.model.CommentCounter;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CommentCounterRepository extends JpaRepository<CommentCounter, Long> {
+    List<CommentCounter> findAllByEventIdIn(Collection<Long> eventIds);
+}
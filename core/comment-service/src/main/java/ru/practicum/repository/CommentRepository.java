@@ -3,12 +3,41 @@ package ru.practicum.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.model.Comment;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
     Page<Comment> findByEventId(Long eventId, Pageable pageRequest);
 
     List<Comment> findAllByAuthorId(Long userId);
-}
\ No newline at end of file
+
+    List<Comment> findAllByEventId(Long eventId, Pageable pageable);
+
+    List<Comment> findAllByIdGreaterThan(Long afterId, Pageable pageable);
+
+    // Курсор задаётся временем создания и id последнего полученного комментария,
+    // сравнение кортежей идёт по индексу (event_id, created, id)
+    @Query(value = "SELECT c.* FROM comments c " +
+            "WHERE c.event_id = :eventId AND (c.created, c.id) < (:created, :id) " +
+            "ORDER BY c.created DESC, c.id DESC LIMIT :size", nativeQuery = true)
+    List<Comment> findEventTimelineAfter(@Param("eventId") Long eventId,
+                                         @Param("created") LocalDateTime created,
+                                         @Param("id") Long id,
+                                         @Param("size") Integer size);
+
+    @Query(value = "SELECT c.* FROM comments c " +
+            "WHERE c.author_id = :authorId AND (c.created, c.id) < (:created, :id) " +
+            "ORDER BY c.created DESC, c.id DESC LIMIT :size", nativeQuery = true)
+    List<Comment> findAuthorTimelineAfter(@Param("authorId") Long authorId,
+                                          @Param("created") LocalDateTime created,
+                                          @Param("id") Long id,
+                                          @Param("size") Integer size);
+
+    @Query(value = "SELECT c.* FROM comments c WHERE c.author_id = :authorId " +
+            "ORDER BY c.created DESC, c.id DESC LIMIT :size", nativeQuery = true)
+    List<Comment> findAuthorTimeline(@Param("authorId") Long authorId, @Param("size") Integer size);
+}
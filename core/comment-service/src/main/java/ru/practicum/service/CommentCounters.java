@@ -0,0 +1,117 @@
+package ru.practicum.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.repository.CommentCounterRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики комментариев по событиям.
+ * Изменения копятся в памяти и периодически одним пакетным upsert переносятся в таблицу comment_counters;
+ * при чтении к значению из таблицы добавляются ещё не сброшенные изменения.
+ * Полный пересчёт по таблице comments при старте не выполняется: при нескольких экземплярах он затёр бы
+ * чужие несброшенные изменения, а их последующий сброс посчитал бы комментарии дважды.
+ */
+@Slf4j
+@Component
+@DependsOn({"entityManagerFactory", "commentWriteBehind"})
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CommentCounters {
+    static final String UPSERT_SQL = "INSERT INTO comment_counters (event_id, comments_count) VALUES (?, ?) " +
+            "ON CONFLICT (event_id) DO UPDATE SET comments_count = comment_counters.comments_count + EXCLUDED.comments_count";
+
+    final JdbcTemplate jdbcTemplate;
+    final CommentCounterRepository commentCounterRepository;
+    final long flushMillis;
+    final Map<Long, LongAdder> deltas = new ConcurrentHashMap<>();
+    final ScheduledExecutorService flusher =
+            Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "comment-counters"));
+
+    public CommentCounters(JdbcTemplate jdbcTemplate,
+                           CommentCounterRepository commentCounterRepository,
+                           @Value("${comments.counters.flush-ms:1000}") long flushMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.commentCounterRepository = commentCounterRepository;
+        this.flushMillis = flushMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        flusher.shutdown();
+        flush();
+    }
+
+    public void increment(Long eventId) {
+        deltas.computeIfAbsent(eventId, id -> new LongAdder()).increment();
+    }
+
+    public void decrement(Long eventId) {
+        deltas.computeIfAbsent(eventId, id -> new LongAdder()).decrement();
+    }
+
+    public long getCount(Long eventId) {
+        return getCounts(List.of(eventId)).getOrDefault(eventId, 0L);
+    }
+
+    public Map<Long, Long> getCounts(Collection<Long> eventIds) {
+        Map<Long, Long> counts = new HashMap<>();
+        eventIds.forEach(eventId -> counts.put(eventId, 0L));
+        commentCounterRepository.findAllByEventIdIn(eventIds)
+                .forEach(counter -> counts.put(counter.getEventId(), counter.getCommentsCount()));
+        counts.replaceAll((eventId, count) -> {
+            LongAdder delta = deltas.get(eventId);
+            return delta == null ? count : count + delta.sum();
+        });
+        return counts;
+    }
+
+    public void flush() {
+        List<Object[]> batch = new ArrayList<>();
+        deltas.forEach((eventId, delta) -> {
+            long value = delta.sumThenReset();
+            if (value != 0) {
+                batch.add(new Object[]{eventId, value});
+            }
+        });
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+        } catch (RuntimeException e) {
+            // Возвращаем несброшенные изменения, чтобы записать их при следующей попытке
+            batch.forEach(row -> deltas.computeIfAbsent((Long) row[0], id -> new LongAdder()).add((Long) row[1]));
+            throw e;
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сохранить счётчики комментариев", e);
+        }
+    }
+}
@@ -9,19 +9,19 @@ import ru.practicum.dto.event.EventWithCommentsDto;
 import java.util.List;
 
 public interface CommentService {
-    List<CommentDto> getCommentsAdmin(Integer size, Integer from);
+    List<CommentDto> getCommentsAdmin(Integer size, Integer from, Long afterId);
 
     void deleteCommentByAdmin(Long commentId);
 
     CommentDto createComment(CommentCreateDto commentCreateDto, Long userId, Long eventId);
 
-    List<CommentDto> getAllCommentsByUserId(Long userId);
+    List<CommentDto> getAllCommentsByUserId(Long userId, String cursor, Integer size);
 
     CommentDto updateComment(Long commentId, CommentUpdateDto commentUpdateDto, Long userId, Long eventId);
 
     void deleteCommentByUserId(Long userId, Long eventId, Long commentId);
 
-    List<CommentDto> getCommentsByEventId(Long eventId, Integer from, Integer size);
+    List<CommentDto> getCommentsByEventId(Long eventId, Integer from, Integer size, String cursor);
 
     EventWithCommentsDto getEventWithComments(Long eventId);
 }
\ No newline at end of file
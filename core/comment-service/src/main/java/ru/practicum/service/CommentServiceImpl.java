@@ -7,15 +7,17 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import ru.practicum.internal.UserInternalClient;
 import ru.practicum.model.Comment;
+import ru.practicum.model.CommentCursor;
 import ru.practicum.dto.comment.CommentCreateDto;
 import ru.practicum.dto.comment.CommentDto;
 import ru.practicum.dto.comment.CommentUpdateDto;
+import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventWithCommentsDto;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
-import ru.practicum.feign.EventClient;
-import ru.practicum.feign.UserClient;
+import ru.practicum.feign.EventSnapshotClient;
 import ru.practicum.mapper.CommentMapper;
 import ru.practicum.repository.CommentRepository;
 
@@ -26,62 +28,96 @@ import java.util.List;
 @Service
 public class CommentServiceImpl implements CommentService {
     private final CommentRepository commentRepository;
-    private final UserClient userClient;
-    private final EventClient eventClient;
+    private final UserInternalClient userClient;
+    private final EventSnapshotClient eventSnapshotClient;
     private final CommentMapper commentMapper;
+    private final LatestCommentsCache latestCommentsCache;
+    private final CommentWriteBehind commentWriteBehind;
+    private final CommentCounters commentCounters;
 
 
-    public List<CommentDto> getCommentsAdmin(Integer size, Integer from) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        Page<Comment> commentPage = commentRepository.findAll(pageable);
-        return commentPage.getContent().stream()
+    public List<CommentDto> getCommentsAdmin(Integer size, Integer from, Long afterId) {
+        // С курсором afterId выборка идёт по первичному ключу без OFFSET
+        List<Comment> comments = afterId != null
+                ? commentRepository.findAllByIdGreaterThan(afterId, PageRequest.of(0, size, Sort.by("id")))
+                : commentRepository.findAll(PageRequest.of(from / size, size, Sort.by("id"))).getContent();
+        return comments.stream()
                 .map(commentMapper::toDto)
                 .toList();
     }
 
     public void deleteCommentByAdmin(Long commentId) {
-        commentRepository.findById(commentId)
+        commentWriteBehind.flush();
+        Comment comment = commentRepository.findById(commentId)
                 .orElseThrow(() -> new NotFoundException("Comment not found: " + commentId));
         commentRepository.deleteById(commentId);
+        commentCounters.decrement(comment.getEventId());
+        latestCommentsCache.onDelete(comment.getEventId());
     }
 
     public CommentDto createComment(CommentCreateDto commentCreateDto, Long userId, Long eventId) {
-        userClient.getUserById(userId);
-        eventClient.getEventByIdFeign(eventId);
-        return commentMapper.toDto(commentRepository.save(commentMapper.toEntity(commentCreateDto)));
+        commentWriteBehind.checkUser(userId);
+        eventSnapshotClient.getEvent(eventId);
+        Comment comment = commentMapper.toEntity(commentCreateDto);
+        comment.setEventId(eventId);
+        comment.setAuthorId(userId);
+        CommentDto commentDto = commentWriteBehind.isEnabled()
+                ? commentWriteBehind.append(comment)
+                : commentMapper.toDto(commentRepository.save(comment));
+        commentCounters.increment(eventId);
+        latestCommentsCache.onCreate(commentDto);
+        return commentDto;
     }
 
-    public List<CommentDto> getAllCommentsByUserId(Long userId) {
+    public List<CommentDto> getAllCommentsByUserId(Long userId, String cursor, Integer size) {
         userClient.getUserById(userId);
-        return commentRepository.findAllByAuthorId(userId)
-                .stream()
+        List<Comment> comments;
+        if (cursor != null) {
+            CommentCursor after = CommentCursor.decode(cursor);
+            comments = commentRepository.findAuthorTimelineAfter(userId, after.created(), after.id(), size);
+        } else {
+            comments = commentRepository.findAuthorTimeline(userId, size);
+        }
+        return comments.stream()
                 .map(commentMapper::toDto)
                 .toList();
     }
 
     public CommentDto updateComment(Long commentId, CommentUpdateDto commentUpdateDto, Long userId, Long eventId) {
         userClient.getUserById(userId);
-        eventClient.getEventByIdFeign(eventId);
+        commentWriteBehind.flush();
+        eventSnapshotClient.getEvent(eventId);
         Comment comment = commentRepository.findById(commentId).orElseThrow(() -> new NotFoundException("Comment not found: " + commentId));
         checkUserIsAuthor(comment, userId);
         comment.setText(commentUpdateDto.getText());
-        return commentMapper.toDto(commentRepository.save(comment));
+        CommentDto commentDto = commentMapper.toDto(commentRepository.save(comment));
+        latestCommentsCache.onUpdate(commentDto);
+        return commentDto;
     }
 
-    public void deleteCommentByUserId(Long userId, Long commentId, Long eventId) {
+    public void deleteCommentByUserId(Long userId, Long eventId, Long commentId) {
         userClient.getUserById(userId);
+        commentWriteBehind.flush();
         Comment comment = commentRepository.findById(commentId).orElseThrow(() -> new NotFoundException("Comment not found: " + commentId));
-        eventClient.getEventByIdFeign(eventId);
+        eventSnapshotClient.getEvent(eventId);
         checkUserIsAuthor(comment, userId);
         if (!comment.getEventId().equals(eventId)) {
             throw new ValidationException("Comment has wrong event");
         }
         commentRepository.deleteById(commentId);
+        commentCounters.decrement(eventId);
+        latestCommentsCache.onDelete(eventId);
     }
 
-    public List<CommentDto> getCommentsByEventId(Long eventId, Integer from, Integer size) {
-        eventClient.getEventByIdFeign(eventId);
-        Pageable pageable = PageRequest.of(from / size, size, Sort.by("created").descending());
+    public List<CommentDto> getCommentsByEventId(Long eventId, Integer from, Integer size, String cursor) {
+        eventSnapshotClient.getEvent(eventId);
+        if (cursor != null) {
+            CommentCursor after = CommentCursor.decode(cursor);
+            return commentRepository.findEventTimelineAfter(eventId, after.created(), after.id(), size).stream()
+                    .map(commentMapper::toDto)
+                    .toList();
+        }
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by("created").descending().and(Sort.by("id").descending()));
         Page<Comment> commentPage = commentRepository.findByEventId(eventId, pageable);
         return commentPage.getContent().stream()
                 .map(commentMapper::toDto)
@@ -89,12 +125,8 @@ public class CommentServiceImpl implements CommentService {
     }
 
     public EventWithCommentsDto getEventWithComments(Long eventId) {
-        eventClient.getEventByIdFeign(eventId);
-        Pageable pageable = PageRequest.of(0, 3, Sort.by("created").descending());
-        List<CommentDto> commentDtos = commentRepository.findByEventId(eventId, pageable).stream()
-                .map(commentMapper::toDto)
-                .toList();
-        return commentMapper.toDto(eventClient.getEventByIdFeign(eventId), commentDtos);
+        EventFullDto event = eventSnapshotClient.getEvent(eventId);
+        return commentMapper.toDto(event, latestCommentsCache.get(eventId), commentCounters.getCount(eventId));
     }
 
     private void checkUserIsAuthor(Comment comment, Long userId) {
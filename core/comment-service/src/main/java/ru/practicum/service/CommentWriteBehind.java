@@ -0,0 +1,371 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.internal.UserInternalClient;
+import ru.practicum.mapper.CommentMapper;
+import ru.practicum.model.Comment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Режим отложенной записи комментариев.
+ * Комментарий получает id из блока, заранее выбранного из последовательности таблицы, сразу фиксируется
+ * в локальном журнале и попадает в буфер, который периодически сбрасывается в БД одним пакетным INSERT.
+ * После сброса журнал очищается; при старте приложения незаписанные комментарии из журнала дописываются в БД.
+ * Если пакет отклонён, комментарии записываются по одному, а отвергнутые БД строки (например, нарушение внешнего
+ * ключа) переносятся в файл недоставленных комментариев, чтобы не блокировать сброс остальных.
+ * Журнал синхронизируется с диском групповой фиксацией: запись в журнал идёт под общей блокировкой, а force
+ * выполняется вне её, и один вызов подтверждает все записи, сделанные до его начала. Поэтому одновременные
+ * комментарии не выстраиваются в очередь к диску по одному.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CommentWriteBehind {
+    static final String INSERT_SQL = "INSERT INTO comments (id, text, event_id, author_id, created) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT (id) DO NOTHING";
+
+    final JdbcTemplate jdbcTemplate;
+    final ObjectMapper objectMapper;
+    final CommentMapper commentMapper;
+    final UserInternalClient userClient;
+    final ObjectProvider<CommentCounters> commentCounters;
+    final ObjectProvider<LatestCommentsCache> latestCommentsCache;
+    final boolean enabled;
+    final Path journalPath;
+    final Path deadLetterPath;
+    final int batchSize;
+    final int idBlockSize;
+    final long flushMillis;
+    final long userTtlMillis;
+
+    final ReentrantLock lock = new ReentrantLock();
+    final List<Comment> buffer = new ArrayList<>();
+    final Deque<Long> ids = new ArrayDeque<>();
+    final Map<Long, Long> checkedUsers = new ConcurrentHashMap<>();
+    // Номер последней записи журнала и номер последней записи, гарантированно сброшенной на диск
+    final AtomicLong appended = new AtomicLong();
+    final Object syncMonitor = new Object();
+    long synced;
+    FileChannel journal;
+    FileChannel deadLetter;
+    ScheduledExecutorService flusher;
+
+    public CommentWriteBehind(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              CommentMapper commentMapper,
+                              UserInternalClient userClient,
+                              ObjectProvider<CommentCounters> commentCounters,
+                              ObjectProvider<LatestCommentsCache> latestCommentsCache,
+                              @Value("${comments.write-behind.enabled:false}") boolean enabled,
+                              @Value("${comments.write-behind.journal:/var/lib/comment-service/comment-journal.ndjson}")
+                              String journalPath,
+                              @Value("${comments.write-behind.dead-letter:/var/lib/comment-service/comment-dead-letter.ndjson}")
+                              String deadLetterPath,
+                              @Value("${comments.write-behind.batch-size:500}") int batchSize,
+                              @Value("${comments.write-behind.id-block-size:100}") int idBlockSize,
+                              @Value("${comments.write-behind.flush-ms:200}") long flushMillis,
+                              @Value("${comments.write-behind.user-ttl-ms:60000}") long userTtlMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.commentMapper = commentMapper;
+        this.userClient = userClient;
+        this.commentCounters = commentCounters;
+        this.latestCommentsCache = latestCommentsCache;
+        this.enabled = enabled;
+        this.journalPath = Path.of(journalPath);
+        this.deadLetterPath = Path.of(deadLetterPath);
+        this.batchSize = batchSize;
+        this.idBlockSize = idBlockSize;
+        this.flushMillis = flushMillis;
+        this.userTtlMillis = userTtlMillis;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        // Относительный путь зависел бы от рабочего каталога процесса и терялся бы при пересоздании контейнера
+        if (!journalPath.isAbsolute() || !deadLetterPath.isAbsolute()) {
+            throw new IllegalStateException("Пути журнала и недоставленных комментариев должны быть абсолютными: "
+                    + journalPath + ", " + deadLetterPath);
+        }
+        Files.createDirectories(journalPath.getParent());
+        Files.createDirectories(deadLetterPath.getParent());
+        deadLetter = FileChannel.open(deadLetterPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.APPEND);
+        replay();
+        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "comment-write-behind"));
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        log.info("Включена отложенная запись комментариев, журнал {}", journalPath);
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        flusher.shutdown();
+        flush();
+        journal.close();
+        deadLetter.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void checkUser(Long userId) {
+        if (!enabled) {
+            userClient.getUserById(userId);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long checkedUntil = checkedUsers.get(userId);
+        if (checkedUntil == null || checkedUntil <= now) {
+            userClient.getUserById(userId);
+            checkedUsers.put(userId, now + userTtlMillis);
+        }
+    }
+
+    public CommentDto append(Comment comment) {
+        boolean full;
+        long position;
+        lock.lock();
+        try {
+            comment.setId(nextId());
+            if (comment.getCreated() == null) {
+                comment.setCreated(LocalDateTime.now());
+            }
+            write(journal, comment);
+            buffer.add(comment);
+            position = appended.incrementAndGet();
+            full = buffer.size() >= batchSize;
+        } finally {
+            lock.unlock();
+        }
+        awaitSynced(position);
+        if (full) {
+            flush();
+        }
+        return commentMapper.toDto(comment);
+    }
+
+    /**
+     * Комментарии события, ещё не записанные в БД, чтобы модель последних комментариев не теряла их при загрузке.
+     */
+    public List<Comment> buffered(Long eventId) {
+        if (!enabled) {
+            return List.of();
+        }
+        lock.lock();
+        try {
+            return buffer.stream().filter(comment -> comment.getEventId().equals(eventId)).toList();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Групповая фиксация: пока один поток выполняет force, остальные ждут монитор и, получив его,
+     * как правило обнаруживают, что их запись уже на диске.
+     */
+    private void awaitSynced(long position) {
+        synchronized (syncMonitor) {
+            if (synced >= position) {
+                return;
+            }
+            long target = appended.get();
+            force(journal);
+            synced = target;
+        }
+    }
+
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return;
+            }
+            try {
+                insert(buffer);
+                log.debug("Записано комментариев из буфера: {}", buffer.size());
+                buffer.clear();
+            } catch (DataAccessException e) {
+                log.warn("Пакет комментариев отклонён, запись по одному: {}", e.getMessage());
+                insertOneByOne(buffer);
+            }
+            journal.truncate(0);
+            journal.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Не удалось записать буфер комментариев, повтор при следующем сбросе", e);
+        }
+    }
+
+    /**
+     * Записывает комментарии по одному, удаляя обработанные из списка. Ошибка, не связанная с самой строкой
+     * (например, недоступность БД), прерывает запись: оставшиеся комментарии сохраняются в журнале до следующего сброса.
+     */
+    private void insertOneByOne(List<Comment> comments) throws IOException {
+        int processed = 0;
+        try {
+            for (Comment comment : comments) {
+                try {
+                    insert(List.of(comment));
+                } catch (DataIntegrityViolationException e) {
+                    reject(comment, e);
+                }
+                processed++;
+            }
+        } finally {
+            comments.subList(0, processed).clear();
+            if (!comments.isEmpty()) {
+                journal.truncate(0);
+                for (Comment comment : comments) {
+                    write(journal, comment);
+                }
+                force(journal);
+            }
+        }
+    }
+
+    private void reject(Comment comment, DataIntegrityViolationException e) {
+        log.error("Комментарий {} события {} отклонён БД и перенесён в {}: {}", comment.getId(), comment.getEventId(),
+                deadLetterPath, e.getMostSpecificCause().getMessage());
+        write(deadLetter, comment);
+        force(deadLetter);
+        // Комментарий уже учтён в счётчике и кэше последних комментариев при добавлении в буфер
+        commentCounters.ifAvailable(counters -> counters.decrement(comment.getEventId()));
+        latestCommentsCache.ifAvailable(cache -> cache.onDelete(comment.getEventId()));
+    }
+
+    private Long nextId() {
+        if (ids.isEmpty()) {
+            ids.addAll(jdbcTemplate.queryForList(
+                    "SELECT nextval(pg_get_serial_sequence('comments', 'id')) FROM generate_series(1, ?)",
+                    Long.class, idBlockSize));
+        }
+        return ids.poll();
+    }
+
+    private void write(FileChannel channel, Comment comment) {
+        try {
+            byte[] line = objectMapper.writeValueAsBytes(new JournalEntry(comment.getId(), comment.getText(),
+                    comment.getEventId(), comment.getAuthorId(), comment.getCreated()));
+            ByteBuffer bytes = ByteBuffer.allocate(line.length + 1).put(line).put((byte) '\n').flip();
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void force(FileChannel channel) {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replay() throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        List<Comment> comments = new ArrayList<>();
+        for (String line : Files.readAllLines(journalPath)) {
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JournalEntry entry = objectMapper.readValue(line, JournalEntry.class);
+                comments.add(new Comment(entry.id(), entry.text(), entry.eventId(), entry.authorId(), entry.created()));
+            } catch (IOException e) {
+                // Последняя строка могла быть записана не полностью при аварийной остановке
+                log.warn("Пропущена повреждённая запись журнала комментариев: {}", line);
+            }
+        }
+        if (!comments.isEmpty()) {
+            int total = comments.size();
+            try {
+                insert(comments);
+            } catch (DataAccessException e) {
+                log.warn("Пакет комментариев из журнала отклонён, запись по одному: {}", e.getMessage());
+                for (Comment comment : comments) {
+                    try {
+                        insert(List.of(comment));
+                    } catch (DataIntegrityViolationException rejected) {
+                        log.error("Комментарий {} из журнала отклонён БД и перенесён в {}: {}", comment.getId(),
+                                deadLetterPath, rejected.getMostSpecificCause().getMessage());
+                        write(deadLetter, comment);
+                        force(deadLetter);
+                    }
+                }
+            }
+            log.info("Из журнала восстановлено комментариев: {}", total);
+        }
+    }
+
+    private void insert(List<Comment> comments) {
+        jdbcTemplate.batchUpdate(INSERT_SQL, comments, batchSize, (ps, comment) -> {
+            ps.setLong(1, comment.getId());
+            ps.setString(2, comment.getText());
+            ps.setLong(3, comment.getEventId());
+            ps.setLong(4, comment.getAuthorId());
+            ps.setTimestamp(5, Timestamp.valueOf(comment.getCreated()));
+        });
+    }
+
+    private record JournalEntry(Long id, String text, Long eventId, Long authorId, LocalDateTime created) {
+    }
+}
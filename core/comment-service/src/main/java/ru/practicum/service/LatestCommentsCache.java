@@ -0,0 +1,157 @@
+package ru.practicum.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.comment.CommentDto;
+import ru.practicum.mapper.CommentMapper;
+import ru.practicum.model.Comment;
+import ru.practicum.repository.CommentRepository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Денормализованная модель "последние комментарии события": N последних комментариев события.
+ * Загружается из БД при первом обращении и дальше поддерживается изменениями комментариев,
+ * поэтому повторные чтения не обращаются к базе. Общее число комментариев ведёт {@link CommentCounters}.
+ * Модель события живёт ttl-ms; при заполнении кэша сначала удаляются устаревшие модели, затем загруженные раньше всех.
+ * Загрузка выполняется вне блокировок карты; если событие изменилось во время загрузки, результат не кэшируется.
+ * В режиме отложенной записи к строкам из БД добавляются комментарии события, ещё ждущие сброса в буфере.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LatestCommentsCache {
+    static final int STRIPES = 64;
+    static final Comparator<CommentDto> NEWEST_FIRST = Comparator.comparing(CommentDto::getCreated)
+            .thenComparing(CommentDto::getId)
+            .reversed();
+
+    final CommentRepository commentRepository;
+    final CommentMapper commentMapper;
+    final CommentWriteBehind writeBehind;
+    final int latest;
+    final int maxEvents;
+    final long ttlMillis;
+    final Map<Long, Latest> events = new ConcurrentHashMap<>();
+    // Счётчики изменений по полосам событий: по ним загрузка узнаёт, что событие менялось, пока шёл запрос к БД
+    final AtomicLongArray changes = new AtomicLongArray(STRIPES);
+
+    public LatestCommentsCache(CommentRepository commentRepository,
+                               CommentMapper commentMapper,
+                               CommentWriteBehind writeBehind,
+                               @Value("${comments.read-model.latest:3}") int latest,
+                               @Value("${comments.read-model.max-events:10000}") int maxEvents,
+                               @Value("${comments.read-model.ttl-ms:300000}") long ttlMillis) {
+        this.commentRepository = commentRepository;
+        this.commentMapper = commentMapper;
+        this.writeBehind = writeBehind;
+        this.latest = latest;
+        this.maxEvents = maxEvents;
+        this.ttlMillis = ttlMillis;
+    }
+
+    public List<CommentDto> get(Long eventId) {
+        long now = System.currentTimeMillis();
+        Latest cached = events.get(eventId);
+        if (cached != null && cached.expiresAt() > now) {
+            return cached.comments();
+        }
+
+        long version = changes.get(stripe(eventId));
+        List<CommentDto> comments = load(eventId);
+        if (changes.get(stripe(eventId)) != version) {
+            return comments;
+        }
+        if (events.size() >= maxEvents) {
+            evict(now);
+        }
+        Latest loaded = new Latest(comments, now + ttlMillis);
+        // Модель, уже сохранённую или обновлённую другим потоком, не перезаписываем
+        if (cached == null) {
+            events.putIfAbsent(eventId, loaded);
+        } else {
+            events.replace(eventId, cached, loaded);
+        }
+        return comments;
+    }
+
+    public void onCreate(CommentDto comment) {
+        changes.incrementAndGet(stripe(comment.getEventId()));
+        events.computeIfPresent(comment.getEventId(), (id, current) -> {
+            // Комментарий уже попал в модель, если она была загружена после его сохранения
+            if (current.comments().stream().anyMatch(c -> c.getId().equals(comment.getId()))) {
+                return current;
+            }
+            List<CommentDto> comments = new ArrayList<>(current.comments());
+            comments.add(comment);
+            comments.sort(NEWEST_FIRST);
+            return current.with(List.copyOf(comments.subList(0, Math.min(latest, comments.size()))));
+        });
+    }
+
+    public void onUpdate(CommentDto comment) {
+        changes.incrementAndGet(stripe(comment.getEventId()));
+        events.computeIfPresent(comment.getEventId(), (id, current) -> current.with(current.comments().stream()
+                .map(c -> c.getId().equals(comment.getId()) ? comment : c)
+                .toList()));
+    }
+
+    public void onDelete(Long eventId) {
+        changes.incrementAndGet(stripe(eventId));
+        // Удалённый комментарий мог быть среди последних, поэтому модель события строится заново при следующем чтении
+        events.remove(eventId);
+    }
+
+    private void evict(long now) {
+        events.values().removeIf(entry -> entry.expiresAt() <= now);
+        if (events.size() < maxEvents) {
+            return;
+        }
+        // Удаляем десятую часть загруженных раньше всех, чтобы не просматривать кэш на каждом промахе
+        events.entrySet().stream()
+                .sorted(Map.Entry.comparingByValue(Comparator.comparingLong(Latest::expiresAt)))
+                .limit(Math.max(1, maxEvents / 10))
+                .toList()
+                .forEach(oldest -> events.remove(oldest.getKey(), oldest.getValue()));
+    }
+
+    private static int stripe(Long eventId) {
+        return Long.hashCode(eventId) & (STRIPES - 1);
+    }
+
+    private List<CommentDto> load(Long eventId) {
+        log.debug("Загрузка последних комментариев события {}", eventId);
+        // Буфер читается до запроса к БД: комментарий, сброшенный между ними, окажется хотя бы в одном из списков
+        List<Comment> buffered = writeBehind.buffered(eventId);
+        List<Comment> stored = commentRepository.findAllByEventId(eventId,
+                PageRequest.of(0, latest, Sort.by("created").descending().and(Sort.by("id").descending())));
+        if (buffered.isEmpty()) {
+            return stored.stream().map(commentMapper::toDto).toList();
+        }
+        Map<Long, CommentDto> comments = new HashMap<>();
+        Stream.concat(stored.stream(), buffered.stream())
+                .forEach(comment -> comments.putIfAbsent(comment.getId(), commentMapper.toDto(comment)));
+        return comments.values().stream()
+                .sorted(NEWEST_FIRST)
+                .limit(latest)
+                .toList();
+    }
+
+    private record Latest(List<CommentDto> comments, long expiresAt) {
+        Latest with(List<CommentDto> updated) {
+            return new Latest(updated, expiresAt);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.internal.UserInternalClient;
+import ru.practicum.mapper.CommentMapper;
+import ru.practicum.model.Comment;
+
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сравнение пропускной способности создания комментариев: синхронная проверка автора и вставка одной строки
+ * против режима отложенной записи с кэшем проверок, журналом с групповой фиксацией и пакетным сбросом.
+ * Удалённая проверка автора моделируется задержкой в несколько миллисекунд.
+ */
+@Slf4j
+@Testcontainers
+class CommentWriteBehindThroughputTest {
+    static final int THREADS = 16;
+    static final int COMMENTS = 4_000;
+    static final int AUTHORS = 100;
+    static final long REMOTE_CALL_MILLIS = 3;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @TempDir
+    Path journalDir;
+
+    HikariDataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    UserInternalClient userClient;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(postgres.getJdbcUrl());
+        dataSource.setUsername(postgres.getUsername());
+        dataSource.setPassword(postgres.getPassword());
+        dataSource.setMaximumPoolSize(THREADS);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS comments");
+        jdbcTemplate.execute("CREATE TABLE comments (id BIGSERIAL PRIMARY KEY, text VARCHAR(2000) NOT NULL, " +
+                "event_id BIGINT NOT NULL, author_id BIGINT NOT NULL, created TIMESTAMP NOT NULL)");
+
+        userClient = mock(UserInternalClient.class);
+        when(userClient.getUserById(anyLong())).thenAnswer(invocation -> {
+            Thread.sleep(REMOTE_CALL_MILLIS);
+            return null;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void writeBehindOutperformsSynchronousInserts() throws Exception {
+        double direct = run(attempt -> {
+            userClient.getUserById(author(attempt));
+            jdbcTemplate.update("INSERT INTO comments (text, event_id, author_id, created) VALUES (?, ?, ?, ?)",
+                    "Комментарий " + attempt, 1L, author(attempt), Timestamp.valueOf(LocalDateTime.now()));
+        });
+        assertEquals(COMMENTS, count());
+        jdbcTemplate.execute("TRUNCATE comments");
+
+        CommentWriteBehind writeBehind = writeBehind();
+        writeBehind.start();
+        double buffered;
+        try {
+            buffered = run(attempt -> {
+                writeBehind.checkUser(author(attempt));
+                writeBehind.append(new Comment(null, "Комментарий " + attempt, 1L, author(attempt), null));
+            });
+        } finally {
+            writeBehind.stop();
+        }
+        assertEquals(COMMENTS, count());
+
+        log.info("Создание комментариев, в секунду: синхронно {}, отложенная запись {}, ускорение x{}",
+                Math.round(direct), Math.round(buffered), String.format("%.1f", buffered / direct));
+        assertTrue(buffered > direct, "Отложенная запись медленнее синхронной: " + buffered + " < " + direct);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CommentWriteBehind writeBehind() {
+        return new CommentWriteBehind(jdbcTemplate, new ObjectMapper().findAndRegisterModules(),
+                mock(CommentMapper.class), userClient, mock(ObjectProvider.class), mock(ObjectProvider.class), true,
+                journalDir.resolve("journal.ndjson").toString(), journalDir.resolve("dead-letter.ndjson").toString(),
+                500, 100, 200, 60_000);
+    }
+
+    private double run(Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(COMMENTS);
+            for (int i = 0; i < COMMENTS; i++) {
+                int number = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    attempt.run(number);
+                    return null;
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+            return COMMENTS / ((System.nanoTime() - started) / 1e9);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM comments", Long.class);
+    }
+
+    private static long author(int attempt) {
+        return attempt % AUTHORS + 1;
+    }
+
+    private interface Attempt {
+        void run(int attempt) throws Exception;
+    }
+}
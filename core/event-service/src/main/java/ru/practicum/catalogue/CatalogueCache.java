@@ -0,0 +1,190 @@
+package ru.practicum.catalogue;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Кэш справочников (категории и закреплённые подборки) и версии для ETag публичных ответов.
+ * Версии хранятся в таблице catalogue_versions и поэтому общие для всех экземпляров сервиса.
+ * Версия увеличивается не в транзакции, изменившей данные, а после её фиксации отдельным коротким запросом
+ * в потоке кэша: иначе блокировка строки версии держалась бы до фиксации и выстраивала в очередь все изменения
+ * событий. Изменения, пришедшие до выполнения запроса, объединяются в одно увеличение. После увеличения экземпляр
+ * сбрасывает свой кэш, а чужие изменения замечает, периодически сверяя версии с таблицей.
+ * Изменение числа подтверждённых заявок не сбрасывает подборки сразу: такие изменения копятся
+ * и учитываются не чаще одного раза за период сверки.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class CatalogueCache {
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY = "category";
+    public static final String PINNED_COMPILATIONS = "pinnedCompilations";
+
+    static final String CATEGORIES_VERSION = "categories";
+    static final String COMPILATIONS_VERSION = "compilations";
+    // Начальная версия берётся из текущего времени, чтобы после пересоздания таблицы не повторить старые ETag
+    static final String INIT_SQL = "INSERT INTO catalogue_versions (name, version) " +
+            "VALUES (?, (EXTRACT(EPOCH FROM clock_timestamp()) * 1000)::BIGINT) ON CONFLICT (name) DO NOTHING";
+    static final String BUMP_SQL = "UPDATE catalogue_versions SET version = version + 1 WHERE name = ? RETURNING version";
+    static final String VERSION_SQL = "SELECT version FROM catalogue_versions WHERE name = ?";
+
+    final CacheManager cacheManager;
+    final JdbcTemplate jdbcTemplate;
+    final long syncMillis;
+    final AtomicLong categoriesVersion = new AtomicLong();
+    final AtomicLong compilationsVersion = new AtomicLong();
+    final AtomicBoolean categoriesChanged = new AtomicBoolean();
+    final AtomicBoolean compilationsChanged = new AtomicBoolean();
+    final AtomicBoolean confirmedRequestsChanged = new AtomicBoolean();
+    final AtomicBoolean publishScheduled = new AtomicBoolean();
+    final ScheduledExecutorService syncer =
+            Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "catalogue-cache"));
+
+    public CatalogueCache(CacheManager cacheManager,
+                          JdbcTemplate jdbcTemplate,
+                          @Value("${catalogue.cache.sync-ms:5000}") long syncMillis) {
+        this.cacheManager = cacheManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncMillis = syncMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        jdbcTemplate.update(INIT_SQL, CATEGORIES_VERSION);
+        jdbcTemplate.update(INIT_SQL, COMPILATIONS_VERSION);
+        sync();
+        syncer.scheduleWithFixedDelay(this::syncQuietly, syncMillis, syncMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        syncer.shutdown();
+    }
+
+    public String categoriesEtag() {
+        return "\"cat-" + categoriesVersion.get() + "\"";
+    }
+
+    public String compilationsEtag() {
+        return "\"comp-" + compilationsVersion.get() + "\"";
+    }
+
+    public void evictCategories() {
+        afterCommit(() -> {
+            categoriesChanged.set(true);
+            // В подборках события отдаются вместе с категориями
+            compilationsChanged.set(true);
+            schedulePublish();
+        });
+    }
+
+    public void evictCompilations() {
+        afterCommit(() -> {
+            compilationsChanged.set(true);
+            schedulePublish();
+        });
+    }
+
+    public void onConfirmedRequestsChanged() {
+        afterCommit(() -> confirmedRequestsChanged.set(true));
+    }
+
+    private void schedulePublish() {
+        if (!publishScheduled.getAndSet(true)) {
+            syncer.execute(this::publishQuietly);
+        }
+    }
+
+    private void publishQuietly() {
+        publishScheduled.set(false);
+        try {
+            publish();
+        } catch (RuntimeException e) {
+            log.error("Не удалось увеличить версии справочников, повтор при следующей сверке", e);
+        }
+    }
+
+    private void publish() {
+        bumpIfChanged(categoriesChanged, CATEGORIES_VERSION, categoriesVersion, CATEGORIES, CATEGORY);
+        bumpIfChanged(compilationsChanged, COMPILATIONS_VERSION, compilationsVersion, PINNED_COMPILATIONS);
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.error("Не удалось сверить версии справочников", e);
+        }
+    }
+
+    private void sync() {
+        publish();
+        bumpIfChanged(confirmedRequestsChanged, COMPILATIONS_VERSION, compilationsVersion, PINNED_COMPILATIONS);
+        advance(categoriesVersion, version(CATEGORIES_VERSION), CATEGORIES, CATEGORY);
+        advance(compilationsVersion, version(COMPILATIONS_VERSION), PINNED_COMPILATIONS);
+    }
+
+    private void bumpIfChanged(AtomicBoolean changed, String name, AtomicLong current, String... caches) {
+        if (!changed.getAndSet(false)) {
+            return;
+        }
+        try {
+            advance(current, bump(name), caches);
+        } catch (RuntimeException e) {
+            changed.set(true);
+            throw e;
+        }
+    }
+
+    private long bump(String name) {
+        return jdbcTemplate.queryForObject(BUMP_SQL, Long.class, name);
+    }
+
+    private long version(String name) {
+        return jdbcTemplate.queryForObject(VERSION_SQL, Long.class, name);
+    }
+
+    private void advance(AtomicLong current, long version, String... caches) {
+        if (current.getAndAccumulate(version, Math::max) < version) {
+            for (String name : caches) {
+                clear(name);
+            }
+        }
+    }
+
+    private void clear(String name) {
+        Optional.ofNullable(cacheManager.getCache(name)).ifPresent(Cache::clear);
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
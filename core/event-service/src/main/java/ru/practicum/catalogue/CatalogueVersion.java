@@ -0,0 +1,21 @@
+package ru.practicum.catalogue;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "catalogue_versions")
+public class CatalogueVersion {
+    @Id
+    @Column(length = 50)
+    String name;
+
+    @Column(nullable = false)
+    Long version;
+}
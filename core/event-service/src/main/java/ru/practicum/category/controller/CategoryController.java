@@ -2,6 +2,8 @@ package ru.practicum.category.controller;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.catalogue.CatalogueCache;
 import ru.practicum.dto.category.CategoryResponseDto;
 import ru.practicum.category.service.CategoryService;
 
@@ -12,15 +14,26 @@ import java.util.Collection;
 @RequestMapping(path = "/categories")
 public class CategoryController {
     private final CategoryService categoryService;
+    private final CatalogueCache catalogueCache;
 
     @GetMapping
     public Collection<CategoryResponseDto> getCategories(@RequestParam(defaultValue = "10", required = false) int size,
-                                                         @RequestParam(defaultValue = "0", required = false) int from) {
+                                                         @RequestParam(defaultValue = "0", required = false) int from,
+                                                         WebRequest request) {
+        if (request.checkNotModified(catalogueCache.categoriesEtag())) {
+            return null;
+        }
         return categoryService.getCategories(from, size);
     }
 
     @GetMapping("/{catId}")
-    public CategoryResponseDto getCategory(@PathVariable Long catId) {
-        return categoryService.getCategoryById(catId);
+    public CategoryResponseDto getCategory(@PathVariable Long catId, WebRequest request) {
+        // Версия читается до загрузки, а проверка выполняется после: несуществующая категория даёт 404, а не 304
+        String etag = catalogueCache.categoriesEtag();
+        CategoryResponseDto category = categoryService.getCategoryById(catId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return category;
     }
 }
\ No newline at end of file
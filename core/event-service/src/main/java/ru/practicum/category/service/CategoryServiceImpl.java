@@ -2,10 +2,12 @@ package ru.practicum.category.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.catalogue.CatalogueCache;
 import ru.practicum.dto.category.CategoryRequestDto;
 import ru.practicum.dto.category.CategoryResponseDto;
 import ru.practicum.category.mapper.CategoryMapper;
@@ -24,17 +26,22 @@ public class CategoryServiceImpl implements CategoryService {
     final CategoryRepository categoryRepository;
     final CategoryMapper categoryMapper;
     final EventRepository eventRepository;
+    final CatalogueCache catalogueCache;
 
     @Override
     public CategoryResponseDto createCategory(CategoryRequestDto categoryRequestDto) {
-        return categoryMapper.toCategoryResponseDto(categoryRepository.save(categoryMapper.toCategory(categoryRequestDto)));
+        Category category = categoryRepository.save(categoryMapper.toCategory(categoryRequestDto));
+        catalogueCache.evictCategories();
+        return categoryMapper.toCategoryResponseDto(category);
     }
 
     @Override
     public CategoryResponseDto updateCategory(Long id, CategoryRequestDto categoryRequestDto) {
         Category category = categoryRepository.findById(id).orElseThrow(() -> new NotFoundException("Category not found: " + id));
         category.setName(categoryRequestDto.getName());
-        return categoryMapper.toCategoryResponseDto(categoryRepository.save(category));
+        category = categoryRepository.save(category);
+        catalogueCache.evictCategories();
+        return categoryMapper.toCategoryResponseDto(category);
     }
 
     @Override
@@ -43,9 +50,11 @@ public class CategoryServiceImpl implements CategoryService {
             throw new ConflictException("category in events" + id);
         }
         categoryRepository.deleteById(id);
+        catalogueCache.evictCategories();
     }
 
     @Override
+    @Cacheable(cacheNames = CatalogueCache.CATEGORIES, key = "{#from, #size}")
     public Collection<CategoryResponseDto> getCategories(Integer from, Integer size) {
         Pageable pageable = PageRequest.of(from / size, size);
         return categoryRepository.findAll(pageable).stream().map(categoryMapper::toCategoryResponseDto).toList();
@@ -53,6 +62,7 @@ public class CategoryServiceImpl implements CategoryService {
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CatalogueCache.CATEGORY, key = "#id")
     public CategoryResponseDto getCategoryById(Long id) {
         Category category = categoryRepository.findById(id).orElseThrow(() -> new NotFoundException("Category not found: " + id));
         return categoryMapper.toCategoryResponseDto(category);
@@ -5,6 +5,8 @@ import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.catalogue.CatalogueCache;
 import ru.practicum.dto.compilations.CompilationDto;
 import ru.practicum.compilation.service.CompilationService;
 
@@ -16,22 +18,35 @@ import java.util.Collection;
 @Slf4j
 public class CompilationController {
     private final CompilationService compilationService;
+    private final CatalogueCache catalogueCache;
 
     @GetMapping
     public Collection<CompilationDto> getCompilations(
             @RequestParam(required = false) Boolean pinned,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
-            @RequestParam(defaultValue = "10") @Positive Integer size) {
+            @RequestParam(defaultValue = "10") @Positive Integer size,
+            WebRequest request) {
 
         log.info("Получен запрос GET /compilations с параметрами: pinned={}, from={}, size={}", pinned, from, size);
 
+        if (request.checkNotModified(catalogueCache.compilationsEtag())) {
+            return null;
+        }
+
         return compilationService.getCompilations(pinned, from, size);
     }
 
     @GetMapping("/{compId}")
-    public CompilationDto getCompilation(@PathVariable Long compId) {
+    public CompilationDto getCompilation(@PathVariable Long compId, WebRequest request) {
         log.info("Получен запрос GET /compilations/{}", compId);
 
-        return compilationService.getCompilation(compId);
+        // Версия читается до загрузки, а проверка выполняется после: несуществующая подборка даёт 404, а не 304
+        String etag = catalogueCache.compilationsEtag();
+        CompilationDto compilation = compilationService.getCompilation(compId);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return compilation;
     }
 }
\ No newline at end of file
@@ -8,8 +8,28 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import ru.practicum.compilation.model.Compilation;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 public interface CompilationRepository extends JpaRepository<Compilation, Long> {
 
     @Query("SELECT c FROM Compilation c WHERE (:pinned IS NULL OR c.pinned = :pinned)")
     Page<Compilation> findAllByPinned(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    @Query("SELECT c.id FROM Compilation c WHERE (:pinned IS NULL OR c.pinned = :pinned)")
+    List<Long> findIdsByPinned(@Param("pinned") Boolean pinned, Pageable pageable);
+
+    // События подборок и их категории загружаются одним запросом вместо отдельного запроса на каждую подборку и событие
+    @Query("SELECT DISTINCT c FROM Compilation c " +
+            "LEFT JOIN FETCH c.events e " +
+            "LEFT JOIN FETCH e.category " +
+            "WHERE c.id IN :ids")
+    List<Compilation> findAllWithEventsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("SELECT c FROM Compilation c " +
+            "LEFT JOIN FETCH c.events e " +
+            "LEFT JOIN FETCH e.category " +
+            "WHERE c.id = :id")
+    Optional<Compilation> findWithEventsById(@Param("id") Long id);
 }
\ No newline at end of file
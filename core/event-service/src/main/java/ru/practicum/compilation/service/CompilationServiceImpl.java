@@ -2,10 +2,13 @@ package ru.practicum.compilation.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.catalogue.CatalogueCache;
 import ru.practicum.compilation.model.Compilation;
 import ru.practicum.dto.compilations.CompilationDto;
 import ru.practicum.dto.compilations.NewCompilationDto;
@@ -18,7 +21,10 @@ import ru.practicum.exception.NotFoundException;
 
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -28,12 +34,22 @@ public class CompilationServiceImpl implements CompilationService {
     private final CompilationRepository compilationRepository;
     private final EventRepository eventRepository;
     private final CompilationMapper compilationMapper;
+    private final CatalogueCache catalogueCache;
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CatalogueCache.PINNED_COMPILATIONS, key = "{#from, #size}",
+            condition = "#pinned != null && #pinned")
     public Collection<CompilationDto> getCompilations(Boolean pinned, Integer from, Integer size) {
-        Pageable pageable = PageRequest.of(from / size, size);
-        return compilationRepository.findAllByPinned(pinned, pageable).stream()
+        Pageable pageable = PageRequest.of(from / size, size, Sort.by("id"));
+        List<Long> ids = compilationRepository.findIdsByPinned(pinned, pageable);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Compilation> compilations = compilationRepository.findAllWithEventsByIdIn(ids).stream()
+                .collect(Collectors.toMap(Compilation::getId, Function.identity()));
+        return ids.stream()
+                .map(compilations::get)
                 .map(compilationMapper::toCompilationDto)
                 .collect(Collectors.toList());
     }
@@ -41,7 +57,8 @@ public class CompilationServiceImpl implements CompilationService {
     @Override
     @Transactional(readOnly = true)
     public CompilationDto getCompilation(Long compId) {
-        Compilation compilation = findCompilationById(compId);
+        Compilation compilation = compilationRepository.findWithEventsById(compId)
+                .orElseThrow(() -> new NotFoundException("Подборка с id=" + compId + " не найдена"));
         return compilationMapper.toCompilationDto(compilation);
     }
 
@@ -58,6 +75,7 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         compilation = compilationRepository.save(compilation);
+        catalogueCache.evictCompilations();
         return compilationMapper.toCompilationDto(compilation);
     }
 
@@ -68,6 +86,7 @@ public class CompilationServiceImpl implements CompilationService {
             throw new NotFoundException("Подборка с id=" + compId + " не найдена");
         }
         compilationRepository.deleteById(compId);
+        catalogueCache.evictCompilations();
     }
 
     @Override
@@ -89,6 +108,7 @@ public class CompilationServiceImpl implements CompilationService {
         }
 
         compilation = compilationRepository.save(compilation);
+        catalogueCache.evictCompilations();
         return compilationMapper.toCompilationDto(compilation);
     }
 
@@ -9,11 +9,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.event.service.EventPublicReader;
 import ru.practicum.event.service.EventService;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/events")
@@ -21,38 +23,44 @@ import java.util.List;
 @Slf4j
 public class EventController {
     private final EventService eventService;
+    private final EventPublicReader eventPublicReader;
 
     @GetMapping
-    public Collection<EventShortDto> getEvents(
+    public CompletableFuture<Collection<EventShortDto>> getEvents(
             @RequestParam(required = false) String text,
             @RequestParam(required = false) List<Long> categories,
             @RequestParam(required = false) Boolean paid,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeStart,
             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss") LocalDateTime rangeEnd,
             @RequestParam(defaultValue = "false") Boolean onlyAvailable,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radius,
             @RequestParam(required = false) String sort,
             @RequestParam(defaultValue = "0") @PositiveOrZero Integer from,
             @RequestParam(defaultValue = "10") @Positive Integer size) {
 
         log.info("Получен запрос GET /events с параметрами: text={}, categories={}, paid={}, rangeStart={}, " +
-                        "rangeEnd={}, onlyAvailable={}, sort={}, from={}, size={}",
-                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+                        "rangeEnd={}, onlyAvailable={}, lat={}, lon={}, radius={}, sort={}, from={}, size={}",
+                text, categories, paid, rangeStart, rangeEnd, onlyAvailable, lat, lon, radius, sort, from, size);
 
-        return eventService.getEvents(text, categories, paid, rangeStart, rangeEnd, onlyAvailable, sort, from, size);
+        return eventPublicReader.getEvents(text, categories, paid, rangeStart, rangeEnd, onlyAvailable,
+                lat, lon, radius, sort, from, size);
     }
 
     @GetMapping("/{eventId}")
     @ResponseStatus(HttpStatus.OK)
-    public EventFullDto getEvent(@RequestHeader("X-EWM-USER-ID") Long userId, @PathVariable Long eventId) {
+    public CompletableFuture<EventFullDto> getEvent(@RequestHeader("X-EWM-USER-ID") Long userId,
+                                                    @PathVariable Long eventId) {
         log.info("Получен запрос GET /events/{}", eventId);
-        return eventService.getEvent(userId, eventId);
+        return eventPublicReader.getEvent(userId, eventId);
     }
 
     @GetMapping("/recommendations")
     @ResponseStatus(HttpStatus.OK)
-    public List<EventFullDto> getRecommendations(@RequestHeader("X-EWM-USER-ID") Long userId) {
+    public CompletableFuture<List<EventFullDto>> getRecommendations(@RequestHeader("X-EWM-USER-ID") Long userId) {
         log.info("Get recommendations for user with id: {}", userId);
-        return eventService.getRecommendations(userId);
+        return eventPublicReader.getRecommendations(userId);
     }
 
     @PutMapping("{eventId}/like")
@@ -22,13 +22,18 @@ public class EventFeignController implements EventClient {
     }
 
     @Override
-    public EventFullDto getEventByUserFeign(Long userId, Long eventId) {
-        return eventService.getEventByUserFeign(userId, eventId);
+    public Long getEventVersion(Long eventId) {
+        return eventService.getEventVersion(eventId);
     }
 
     @Override
-    public void updateEventForRequests(Long eventId, EventFullDto eventFullDto) {
-        eventService.updateEventForRequests(eventId, eventFullDto);
+    public Boolean changeConfirmedRequests(Long eventId, Integer delta) {
+        return eventService.changeConfirmedRequests(eventId, delta);
+    }
+
+    @Override
+    public EventFullDto getEventByUserFeign(Long userId, Long eventId) {
+        return eventService.getEventByUserFeign(userId, eventId);
     }
 
 }
\ No newline at end of file
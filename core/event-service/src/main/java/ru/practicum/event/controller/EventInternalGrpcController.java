@@ -0,0 +1,59 @@
+package ru.practicum.event.controller;
+
+import io.grpc.stub.StreamObserver;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+import ru.practicum.event.service.EventService;
+import ru.practicum.grpc.core.event.ChangeConfirmedRequestsProto;
+import ru.practicum.grpc.core.event.ChangeConfirmedRequestsResultProto;
+import ru.practicum.grpc.core.event.EventIdRequest;
+import ru.practicum.grpc.core.event.EventInternalControllerGrpc;
+import ru.practicum.grpc.core.event.EventProto;
+import ru.practicum.grpc.core.event.EventVersionProto;
+import ru.practicum.internal.InternalApiMapper;
+
+@Slf4j
+@GrpcService
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventInternalGrpcController extends EventInternalControllerGrpc.EventInternalControllerImplBase {
+    final EventService eventService;
+
+    @Override
+    public void getEvent(EventIdRequest request, StreamObserver<EventProto> responseObserver) {
+        try {
+            responseObserver.onNext(InternalApiMapper.toProto(eventService.getEventByIdFeign(request.getEventId())));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(InternalApiMapper.toStatus(e));
+        }
+    }
+
+    @Override
+    public void getEventVersion(EventIdRequest request, StreamObserver<EventVersionProto> responseObserver) {
+        try {
+            responseObserver.onNext(EventVersionProto.newBuilder()
+                    .setVersion(eventService.getEventVersion(request.getEventId()))
+                    .build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(InternalApiMapper.toStatus(e));
+        }
+    }
+
+    @Override
+    public void changeConfirmedRequests(ChangeConfirmedRequestsProto request,
+                                        StreamObserver<ChangeConfirmedRequestsResultProto> responseObserver) {
+        try {
+            log.debug("Изменение числа подтверждённых заявок события {} на {}", request.getEventId(), request.getDelta());
+            boolean changed = eventService.changeConfirmedRequests(request.getEventId(), request.getDelta());
+            responseObserver.onNext(ChangeConfirmedRequestsResultProto.newBuilder().setChanged(changed).build());
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(InternalApiMapper.toStatus(e));
+        }
+    }
+}
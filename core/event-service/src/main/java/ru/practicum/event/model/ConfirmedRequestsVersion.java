@@ -0,0 +1,7 @@
+package ru.practicum.event.model;
+
+/**
+ * Число подтверждённых заявок события вместе с версией строки, при которой оно прочитано.
+ */
+public record ConfirmedRequestsVersion(Long confirmedRequests, Long version) {
+}
@@ -51,7 +51,8 @@ public class Event {
     @Column(name = "request_moderation", nullable = false, columnDefinition = "BOOLEAN DEFAULT TRUE")
     Boolean requestModeration;
 
-    @Column(name = "confirmed_requests", columnDefinition = "BIGINT DEFAULT 0")
+    // Меняется только атомарным UPDATE в EventRepository.changeConfirmedRequests
+    @Column(name = "confirmed_requests", updatable = false, columnDefinition = "BIGINT DEFAULT 0")
     Long confirmedRequests;
 
     @Column(name = "created_on", nullable = false)
@@ -67,6 +68,10 @@ public class Event {
     @Column(name = "published_on")
     LocalDateTime publishedOn;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    Long version;
+
     @Transient
     Double rating = 0.0;
 }
\ No newline at end of file
@@ -8,7 +8,8 @@ import lombok.experimental.FieldDefaults;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
-@Table(name = "locations", schema = "public")
+@Table(name = "locations", schema = "public",
+        uniqueConstraints = @UniqueConstraint(name = "unique_location", columnNames = {"lat", "lon"}))
 @Getter
 @Setter
 public class Location {
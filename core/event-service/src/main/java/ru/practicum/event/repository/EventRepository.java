@@ -3,13 +3,16 @@ package ru.practicum.event.repository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import ru.practicum.event.model.ConfirmedRequestsVersion;
 import ru.practicum.event.model.Event;
 import ru.practicum.dto.event.State;
 
 import java.time.LocalDateTime;
 import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
@@ -36,4 +39,22 @@ public interface EventRepository extends JpaRepository<Event, Long> {
             Pageable pageable);
 
     Set<Event> findAllByIdIn(Collection<Long> eventIds);
-}
\ No newline at end of file
+
+    @Query("SELECT e FROM Event e JOIN FETCH e.category WHERE e.state = :state AND e.eventDate >= :from")
+    List<Event> findAllUpcomingWithCategory(@Param("state") State state, @Param("from") LocalDateTime from);
+
+    @Query("SELECT e.version FROM Event e WHERE e.id = :eventId")
+    Optional<Long> findVersionById(@Param("eventId") Long eventId);
+
+    @Query("SELECT new ru.practicum.event.model.ConfirmedRequestsVersion(e.confirmedRequests, e.version) " +
+            "FROM Event e WHERE e.id = :eventId")
+    Optional<ConfirmedRequestsVersion> findConfirmedRequestsVersionById(@Param("eventId") Long eventId);
+
+    @Modifying
+    @Query(value = "UPDATE events SET confirmed_requests = COALESCE(confirmed_requests, 0) + :delta, version = version + 1 " +
+            "WHERE id = :eventId " +
+            "AND COALESCE(confirmed_requests, 0) + :delta >= 0 " +
+            "AND (participant_limit = 0 OR COALESCE(confirmed_requests, 0) + :delta <= participant_limit)",
+            nativeQuery = true)
+    int changeConfirmedRequests(@Param("eventId") Long eventId, @Param("delta") Integer delta);
+}
@@ -1,10 +1,19 @@
 package ru.practicum.event.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.event.model.Location;
 
 import java.util.Optional;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
     Optional<Location> findByLatAndLon(Double lat, Double lon);
-}
\ No newline at end of file
+
+    // Вставка без ошибки при совпадении координат; возвращает 1, если строка вставлена этим запросом
+    @Modifying
+    @Query(value = "INSERT INTO locations (lat, lon) VALUES (:lat, :lon) ON CONFLICT (lat, lon) DO NOTHING",
+            nativeQuery = true)
+    int insertIfAbsent(@Param("lat") Double lat, @Param("lon") Double lon);
+}
@@ -0,0 +1,98 @@
+package ru.practicum.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.RecomendationClient;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.feign.UserClient;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Асинхронный путь чтения публичных эндпоинтов событий.
+ * Запросы к БД выполняются в отдельном пуле, рекомендации собирает {@link RecommendationAssembler},
+ * поэтому поток сервлета не ждёт ни базу, ни сервисы статистики.
+ * Пулы платформенных потоков ограничены и по числу потоков, и по длине очереди: при переполнении запрос
+ * отклоняется с ответом 503, а не накапливается в памяти. Рекомендации используют собственный пул,
+ * чтобы медленные сервисы статистики не занимали потоки чтения событий.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventPublicReader {
+    final EventService eventService;
+    final ExecutorService executor;
+    final ExecutorService recommendationExecutor;
+    final RecommendationAssembler recommendationAssembler;
+
+    public EventPublicReader(EventService eventService,
+                             RecomendationClient recommendationClient,
+                             UserClient userClient,
+                             @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                             @Value("${events.public.read-threads:32}") int readThreads,
+                             @Value("${events.public.read-queue:256}") int readQueue,
+                             @Value("${events.recommendations.threads:8}") int recommendationThreads,
+                             @Value("${events.recommendations.queue:64}") int recommendationQueue,
+                             @Value("${events.recommendations.limit:10}") int recommendationsLimit,
+                             @Value("${events.recommendations.budget-ms:500}") long recommendationsBudgetMillis) {
+        this.eventService = eventService;
+        this.executor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : boundedPool("event-public-read-", readThreads, readQueue);
+        this.recommendationExecutor = virtualThreads
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : boundedPool("event-recommendations-", recommendationThreads, recommendationQueue);
+        this.recommendationAssembler = new RecommendationAssembler(eventService, recommendationClient, userClient,
+                recommendationExecutor, recommendationsLimit, recommendationsBudgetMillis);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+        recommendationExecutor.shutdown();
+    }
+
+    public CompletableFuture<Collection<EventShortDto>> getEvents(String text, List<Long> categories, Boolean paid,
+                                                                  LocalDateTime rangeStart, LocalDateTime rangeEnd,
+                                                                  Boolean onlyAvailable, Double lat, Double lon,
+                                                                  Double radius, String sort, Integer from,
+                                                                  Integer size) {
+        return read(() -> eventService.getEvents(text, categories, paid, rangeStart, rangeEnd,
+                onlyAvailable, lat, lon, radius, sort, from, size));
+    }
+
+    public CompletableFuture<EventFullDto> getEvent(Long userId, Long eventId) {
+        return read(() -> eventService.getEvent(userId, eventId));
+    }
+
+    public CompletableFuture<List<EventFullDto>> getRecommendations(Long userId) {
+        return recommendationAssembler.assemble(userId);
+    }
+
+    private <T> CompletableFuture<T> read(Supplier<T> query) {
+        try {
+            return CompletableFuture.supplyAsync(query, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Event read queue is full");
+        }
+    }
+
+    private static ExecutorService boundedPool(String name, int threads, int queue) {
+        return new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queue),
+                Thread.ofPlatform().name(name, 0).factory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -10,7 +10,8 @@ public interface EventService {
     // Публичные методы
     Collection<EventShortDto> getEvents(String text, List<Long> categories, Boolean paid,
                                         LocalDateTime rangeStart, LocalDateTime rangeEnd,
-                                        Boolean onlyAvailable, String sort, Integer from, Integer size);
+                                        Boolean onlyAvailable, Double lat, Double lon, Double radius,
+                                        String sort, Integer from, Integer size);
 
     EventFullDto getEvent(Long userId, Long eventId);
 
@@ -30,13 +31,15 @@ public interface EventService {
     EventFullDto updateEventAdmin(Long eventId, UpdateEventAdminRequest updateEventAdminRequest);
 
     //Для реквестов
-    void updateEventForRequests(Long eventId, EventFullDto eventFullDto);
+    Boolean changeConfirmedRequests(Long eventId, Integer delta);
 
     EventFullDto getEventByIdFeign(Long eventId);
 
+    Long getEventVersion(Long eventId);
+
     EventFullDto getEventByUserFeign(Long eventId, Long userId);
 
-    List<EventFullDto> getRecommendations(Long userId);
+    List<EventFullDto> getEventsByIds(Collection<Long> eventIds);
 
     void likeEvent(Long userId, Long eventId);
 }
\ No newline at end of file
@@ -1,6 +1,10 @@
 package ru.practicum.event.service;
 
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.NumberExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
@@ -11,8 +15,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import ru.practicum.RecomendationClient;
 import ru.practicum.UserActionClient;
+import ru.practicum.catalogue.CatalogueCache;
 import ru.practicum.category.model.Category;
 import ru.practicum.category.repository.CategoryRepository;
 import ru.practicum.dto.event.*;
@@ -22,19 +26,16 @@ import ru.practicum.event.model.Event;
 import ru.practicum.event.model.Location;
 import ru.practicum.event.model.QEvent;
 import ru.practicum.event.repository.EventRepository;
-import ru.practicum.event.repository.LocationRepository;
 import ru.practicum.exception.ForbiddenException;
 import ru.practicum.exception.NotFoundException;
 import ru.practicum.exception.ValidationException;
-import ru.practicum.feign.UserClient;
 import ru.practicum.grpc.stats.action.ActionTypeProto;
-import ru.practicum.grpc.stats.recommendation.RecommendedEventProto;
+import ru.practicum.internal.UserInternalClient;
 
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,13 +43,15 @@ import java.util.stream.Collectors;
 @Slf4j
 public class EventServiceImpl implements EventService {
     private static final String APP_NAME = "explore-with-me";
+    private static final double EARTH_RADIUS_KM = 6371.0;
     private final EventRepository eventRepository;
     private final CategoryRepository categoryRepository;
-    private final UserClient userClient;
-    private final LocationRepository locationRepository;
+    private final UserInternalClient userClient;
+    private final LocationResolver locationResolver;
     private final EventMapper eventMapper;
+    private final CatalogueCache catalogueCache;
+    private final PublishedEventIndex publishedEventIndex;
     private final EntityManager entityManager;
-    final RecomendationClient recommendationsClient;
     final UserActionClient userActionClient;
 
 
@@ -56,7 +59,8 @@ public class EventServiceImpl implements EventService {
     @Transactional(readOnly = true)
     public Collection<EventShortDto> getEvents(String text, List<Long> categories, Boolean paid,
                                                LocalDateTime rangeStart, LocalDateTime rangeEnd,
-                                               Boolean onlyAvailable, String sort, Integer from, Integer size) {
+                                               Boolean onlyAvailable, Double lat, Double lon, Double radius,
+                                               String sort, Integer from, Integer size) {
         JPAQueryFactory jpaQueryFactory = new JPAQueryFactory(entityManager);
         QEvent event = QEvent.event;
 
@@ -81,6 +85,7 @@ public class EventServiceImpl implements EventService {
             booleanBuilder.and(event.paid.eq(paid));
         }
 
+        boolean upcomingOnly = rangeStart == null || !rangeStart.isBefore(LocalDateTime.now());
         if (rangeStart == null) {
             rangeStart = LocalDateTime.now();
         }
@@ -88,6 +93,15 @@ public class EventServiceImpl implements EventService {
         if (rangeEnd != null && rangeEnd.isBefore(rangeStart)) {
             throw new ValidationException("Дата окончания не может быть раньше даты начала");
         }
+
+        // Частые комбинации фильтров по предстоящим событиям обслуживаются индексом в памяти.
+        // Индекс обходит события по дате, поэтому другие виды сортировки выполняются в БД
+        boolean dateOrder = sort == null || sort.equals("EVENT_DATE");
+        if (publishedEventIndex.isReady() && upcomingOnly && dateOrder && (text == null || text.isBlank())
+                && lat == null && lon == null && radius == null) {
+            return publishedEventIndex.find(categories, paid, rangeStart, rangeEnd,
+                    Boolean.TRUE.equals(onlyAvailable), from, size);
+        }
         booleanBuilder.and(event.eventDate.goe(rangeStart));
 
         if (rangeEnd != null) {
@@ -98,15 +112,22 @@ public class EventServiceImpl implements EventService {
             booleanBuilder.and(event.participantLimit.eq(0).or(event.confirmedRequests.lt(event.participantLimit)));
         }
 
+        if (lat != null || lon != null || radius != null) {
+            booleanBuilder.and(withinRadius(event, lat, lon, radius));
+        }
+
         long totalCount = jpaQueryFactory.selectFrom(event)
                 .where(booleanBuilder)
                 .fetchCount();
 
-        List<Event> events = jpaQueryFactory.selectFrom(event)
+        JPAQuery<Event> query = jpaQueryFactory.selectFrom(event)
                 .where(booleanBuilder)
                 .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();
+                .limit(pageable.getPageSize());
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(event.eventDate.asc(), event.id.asc());
+        }
+        List<Event> events = query.fetch();
 
         PageImpl<Event> page = new PageImpl<>(events, pageable, totalCount);
 
@@ -116,13 +137,14 @@ public class EventServiceImpl implements EventService {
     }
 
     @Override
-    @Transactional
+    @Transactional(readOnly = true)
     public EventFullDto getEvent(Long userId, Long eventId) {
         Event event = findEventById(eventId);
         if (event.getState() != State.PUBLISHED) {
             throw new NotFoundException("Событие с id=" + eventId + " не опубликовано");
         }
-        userActionClient.collectUserAction(userId, eventId, ActionTypeProto.ACTION_VIEW, Instant.now());
+        // Просмотр отправляется в коллектор без ожидания ответа, параллельно с формированием ответа
+        userActionClient.collectUserActionAsync(userId, eventId, ActionTypeProto.ACTION_VIEW, Instant.now());
         return eventMapper.toEventFullDto(event);
     }
 
@@ -150,12 +172,7 @@ public class EventServiceImpl implements EventService {
         }
 
         // Поиск существующей локации или создание новой
-        Location location = locationRepository.findByLatAndLon(
-                        newEventDto.getLocation().getLat(),
-                        newEventDto.getLocation().getLon())
-                .orElseGet(() -> locationRepository.save(
-                        eventMapper.toLocation(newEventDto.getLocation())
-                ));
+        Location location = locationResolver.resolve(newEventDto.getLocation());
 
         Event event = eventMapper.toEvent(newEventDto);
         event.setInitiatorId(initiator.getId());
@@ -210,6 +227,8 @@ public class EventServiceImpl implements EventService {
         }
 
         event = eventRepository.save(event);
+        catalogueCache.evictCompilations();
+        publishedEventIndex.onEventChanged(event);
         return eventMapper.toEventFullDto(event);
     }
 
@@ -269,10 +288,37 @@ public class EventServiceImpl implements EventService {
         }
 
         event = eventRepository.save(event);
+        catalogueCache.evictCompilations();
+        publishedEventIndex.onEventChanged(event);
         return eventMapper.toEventFullDto(event);
     }
 
     // Вспомогательные методы
+    private Predicate withinRadius(QEvent event, Double lat, Double lon, Double radius) {
+        if (lat == null || lon == null || radius == null) {
+            throw new ValidationException("Для поиска по расстоянию нужно указать lat, lon и radius");
+        }
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180 || radius <= 0) {
+            throw new ValidationException("Некорректные координаты или радиус поиска");
+        }
+
+        // Сначала отсекаем локации ограничивающим прямоугольником: он использует индекс (lat, lon) локаций
+        double latDelta = Math.toDegrees(radius / EARTH_RADIUS_KM);
+        BooleanBuilder area = new BooleanBuilder(event.location.lat.between(lat - latDelta, lat + latDelta));
+        double cosLat = Math.cos(Math.toRadians(lat));
+        double lonDelta = cosLat > 1e-6 ? latDelta / cosLat : 360;
+        if (lon - lonDelta >= -180 && lon + lonDelta <= 180) {
+            area.and(event.location.lon.between(lon - lonDelta, lon + lonDelta));
+        }
+
+        // Точная проверка по сферической теореме косинусов: cos(d / R) >= cos(radius / R)
+        NumberExpression<Double> cosDistance = Expressions.numberTemplate(Double.class,
+                "{0} * sin({2} * {4}) + {1} * cos({2} * {4}) * cos(({3} - {5}) * {4})",
+                Math.sin(Math.toRadians(lat)), cosLat, event.location.lat, event.location.lon,
+                Math.PI / 180, lon);
+        return area.and(cosDistance.goe(Math.cos(Math.min(radius / EARTH_RADIUS_KM, Math.PI))));
+    }
+
     private Event findEventById(Long eventId) {
         return eventRepository.findById(eventId)
                 .orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
@@ -314,12 +360,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateRequest.getLocation() != null) {
-            Location location = locationRepository.findByLatAndLon(
-                            updateRequest.getLocation().getLat(),
-                            updateRequest.getLocation().getLon())
-                    .orElseGet(() -> locationRepository.save(
-                            eventMapper.toLocation(updateRequest.getLocation())
-                    ));
+            Location location = locationResolver.resolve(updateRequest.getLocation());
             event.setLocation(location);
         }
 
@@ -363,12 +404,7 @@ public class EventServiceImpl implements EventService {
         }
 
         if (updateRequest.getLocation() != null) {
-            Location location = locationRepository.findByLatAndLon(
-                            updateRequest.getLocation().getLat(),
-                            updateRequest.getLocation().getLon())
-                    .orElseGet(() -> locationRepository.save(
-                            eventMapper.toLocation(updateRequest.getLocation())
-                    ));
+            Location location = locationResolver.resolve(updateRequest.getLocation());
             event.setLocation(location);
         }
 
@@ -385,15 +421,25 @@ public class EventServiceImpl implements EventService {
         }
     }
 
-
     @Override
-    public void updateEventForRequests(Long eventId, EventFullDto eventFullDto) {
-        Event event = findEventById(eventId);
-        event.setConfirmedRequests(eventFullDto.getConfirmedRequests());
-        eventRepository.save(event);
+    @Transactional
+    public Boolean changeConfirmedRequests(Long eventId, Integer delta) {
+        // Счётчик меняется одним условным UPDATE, поэтому лимит участников не может быть превышен
+        if (eventRepository.changeConfirmedRequests(eventId, delta) > 0) {
+            catalogueCache.onConfirmedRequestsChanged();
+            eventRepository.findConfirmedRequestsVersionById(eventId).ifPresent(state -> publishedEventIndex
+                    .onConfirmedRequestsChanged(eventId, state.confirmedRequests(), state.version()));
+            return true;
+        }
+        if (!eventRepository.existsById(eventId)) {
+            throw new NotFoundException("Событие с id=" + eventId + " не найдено");
+        }
+        log.info("Не удалось изменить число подтверждённых заявок события {} на {}: лимит участников", eventId, delta);
+        return false;
     }
 
     @Override
+    @Transactional(readOnly = true)
     public EventFullDto getEventByIdFeign(Long eventId) {
         Event event = findEventById(eventId);
         EventFullDto eventFullDto = eventMapper.toEventFullDto(event);
@@ -403,20 +449,29 @@ public class EventServiceImpl implements EventService {
         return eventFullDto;
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Long getEventVersion(Long eventId) {
+        return eventRepository.findVersionById(eventId)
+                .orElseThrow(() -> new NotFoundException("Событие с id=" + eventId + " не найдено"));
+    }
+
     @Override
     public EventFullDto getEventByUserFeign(Long eventId, Long userId) {
         return getUserEvent(userId, eventId);
     }
 
     @Override
-    public List<EventFullDto> getRecommendations(Long userId) {
-        Set<Long> eventIds = recommendationsClient.getRecommendationsForUser(userId, 10)
-                .map(RecommendedEventProto::getEventId).collect(Collectors.toSet());
-
+    @Transactional(readOnly = true)
+    public List<EventFullDto> getEventsByIds(Collection<Long> eventIds) {
         return eventRepository
                 .findAllByIdIn(eventIds)
                 .stream()
-                .map(eventMapper::toEventFullDto)
+                .map(event -> {
+                    EventFullDto eventFullDto = eventMapper.toEventFullDto(event);
+                    eventFullDto.setInitiator(UserShortDto.builder().id(event.getInitiatorId()).build());
+                    return eventFullDto;
+                })
                 .toList();
     }
 
@@ -0,0 +1,76 @@
+package ru.practicum.event.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.event.LocationDto;
+import ru.practicum.event.model.Location;
+import ru.practicum.event.repository.LocationRepository;
+import ru.practicum.exception.ConflictException;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Сопоставляет координаты локации её id. Локации не удаляются, поэтому найденный id кэшируется без срока жизни;
+ * новая локация вставляется с ON CONFLICT DO NOTHING, не конфликтуя с параллельными запросами по ограничению
+ * unique_location. Id вставленной строки попадает в кэш только после фиксации транзакции: при откате строки уже нет.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class LocationResolver {
+    final LocationRepository locationRepository;
+    final int maxSize;
+    final Map<Coordinates, Long> ids = new ConcurrentHashMap<>();
+
+    public LocationResolver(LocationRepository locationRepository,
+                            @Value("${locations.cache.max-size:100000}") int maxSize) {
+        this.locationRepository = locationRepository;
+        this.maxSize = maxSize;
+    }
+
+    public Location resolve(LocationDto locationDto) {
+        Coordinates coordinates = new Coordinates(locationDto.getLat(), locationDto.getLon());
+        Long id = ids.get(coordinates);
+        if (id == null) {
+            boolean inserted = locationRepository.insertIfAbsent(coordinates.lat(), coordinates.lon()) > 0;
+            id = locationRepository.findByLatAndLon(coordinates.lat(), coordinates.lon())
+                    .map(Location::getId)
+                    .orElseThrow(() -> new ConflictException("Не удалось сохранить локацию " + coordinates));
+            Long resolved = id;
+            if (inserted) {
+                afterCommit(() -> cache(coordinates, resolved));
+            } else {
+                cache(coordinates, resolved);
+            }
+        }
+        return new Location(id, coordinates.lat(), coordinates.lon());
+    }
+
+    private void cache(Coordinates coordinates, Long id) {
+        if (ids.size() < maxSize) {
+            ids.put(coordinates, id);
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record Coordinates(Double lat, Double lon) {
+    }
+}
@@ -0,0 +1,344 @@
+package ru.practicum.event.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.event.EventShortDto;
+import ru.practicum.dto.event.State;
+import ru.practicum.event.mapper.EventMapper;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.repository.EventRepository;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс предстоящих опубликованных событий для публичного поиска без обращения к БД.
+ * Каждое событие занимает слот; категории, платность и наличие свободных мест хранятся битовыми масками по слотам,
+ * а упорядоченное дерево по дате события задаёт порядок обхода при поиске по диапазону дат.
+ * Индекс обновляется после фиксации изменений событий и периодически перестраивается целиком.
+ * Каждая запись хранит версию строки события, поэтому изменение применяется, только если оно новее записи.
+ * Изменения, пришедшие во время перестроения, запоминаются и повторяются поверх нового снимка:
+ * более старые, чем снимок, отбрасываются по версии, более новые не теряются.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PublishedEventIndex {
+    final EventRepository eventRepository;
+    final EventMapper eventMapper;
+    final boolean enabled;
+    final long refreshMillis;
+
+    final ReadWriteLock lock = new ReentrantReadWriteLock();
+    final List<IndexedEvent> slots = new ArrayList<>();
+    final Deque<Integer> freeSlots = new ArrayDeque<>();
+    final Map<Long, Integer> slotByEventId = new HashMap<>();
+    final NavigableMap<DateKey, Integer> byDate = new TreeMap<>();
+    final Map<Long, BitSet> byCategory = new HashMap<>();
+    final BitSet paidSlots = new BitSet();
+    final BitSet availableSlots = new BitSet();
+    final Map<Long, Long> removedVersions = new HashMap<>();
+    final List<Runnable> changesDuringRefresh = new ArrayList<>();
+    boolean refreshing;
+    volatile boolean ready;
+    ScheduledExecutorService refresher;
+
+    public PublishedEventIndex(EventRepository eventRepository,
+                               EventMapper eventMapper,
+                               @Value("${events.index.enabled:false}") boolean enabled,
+                               @Value("${events.index.refresh-ms:60000}") long refreshMillis) {
+        this.eventRepository = eventRepository;
+        this.eventMapper = eventMapper;
+        this.enabled = enabled;
+        this.refreshMillis = refreshMillis;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "published-event-index"));
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, 0, refreshMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdown();
+        }
+    }
+
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    /**
+     * Поиск по индексу в порядке даты события.
+     */
+    public List<EventShortDto> find(Collection<Long> categories, Boolean paid, LocalDateTime rangeStart,
+                                    LocalDateTime rangeEnd, boolean onlyAvailable, int from, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet filter = null;
+            if (categories != null && !categories.isEmpty()) {
+                filter = new BitSet();
+                for (Long categoryId : categories) {
+                    BitSet categorySlots = byCategory.get(categoryId);
+                    if (categorySlots != null) {
+                        filter.or(categorySlots);
+                    }
+                }
+            }
+            if (paid != null) {
+                filter = intersect(filter, paidSlots, !paid);
+            }
+            if (onlyAvailable) {
+                filter = intersect(filter, availableSlots, false);
+            }
+
+            NavigableMap<DateKey, Integer> range = rangeEnd == null
+                    ? byDate.tailMap(new DateKey(rangeStart, Long.MIN_VALUE), true)
+                    : byDate.subMap(new DateKey(rangeStart, Long.MIN_VALUE), true, new DateKey(rangeEnd, Long.MAX_VALUE), true);
+
+            List<EventShortDto> result = new ArrayList<>(size);
+            int skipped = 0;
+            for (Integer slot : range.values()) {
+                if (filter != null && !filter.get(slot)) {
+                    continue;
+                }
+                if (skipped++ < from) {
+                    continue;
+                }
+                result.add(slots.get(slot).toDto());
+                if (result.size() == size) {
+                    break;
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void onEventChanged(Event event) {
+        if (!enabled) {
+            return;
+        }
+        // Событие преобразуется сейчас, пока открыта сессия, а в индекс попадает только после фиксации транзакции
+        boolean published = event.getState() == State.PUBLISHED;
+        IndexedEvent indexed = published ? index(event) : null;
+        afterCommit(() -> {
+            // Версия увеличивается при сбросе изменений в БД, поэтому читается уже после фиксации
+            long version = event.getVersion();
+            apply(() -> {
+                Long eventId = event.getId();
+                Integer slot = slotByEventId.get(eventId);
+                long known = slot != null ? slots.get(slot).version() : removedVersions.getOrDefault(eventId, -1L);
+                if (known >= version) {
+                    return;
+                }
+                remove(eventId);
+                if (published) {
+                    removedVersions.remove(eventId);
+                    add(indexed.withVersion(version));
+                } else {
+                    // Запомненная версия не даст запоздавшей публикации вернуть событие в индекс
+                    removedVersions.put(eventId, version);
+                }
+            });
+        });
+    }
+
+    /**
+     * Принимает абсолютное число подтверждённых заявок и версию строки после изменения,
+     * поэтому повторное или запоздавшее применение не искажает счётчик.
+     */
+    public void onConfirmedRequestsChanged(Long eventId, long confirmedRequests, long version) {
+        if (!enabled) {
+            return;
+        }
+        afterCommit(() -> apply(() -> {
+            Integer slot = slotByEventId.get(eventId);
+            if (slot == null || slots.get(slot).version() >= version) {
+                return;
+            }
+            IndexedEvent updated = slots.get(slot).withConfirmedRequests(confirmedRequests, version);
+            slots.set(slot, updated);
+            availableSlots.set(slot, updated.isAvailable());
+        }));
+    }
+
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            change.run();
+            if (refreshing) {
+                changesDuringRefresh.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Не удалось перестроить индекс опубликованных событий", e);
+        }
+    }
+
+    private void refresh() {
+        // Изменения, зафиксированные после начала чтения снимка, будут повторены поверх него
+        lock.writeLock().lock();
+        try {
+            refreshing = true;
+            changesDuringRefresh.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        List<IndexedEvent> events;
+        try {
+            events = eventRepository
+                    .findAllUpcomingWithCategory(State.PUBLISHED, LocalDateTime.now()).stream()
+                    .map(this::index)
+                    .toList();
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                refreshing = false;
+                changesDuringRefresh.clear();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        lock.writeLock().lock();
+        try {
+            slots.clear();
+            freeSlots.clear();
+            slotByEventId.clear();
+            byDate.clear();
+            byCategory.clear();
+            paidSlots.clear();
+            availableSlots.clear();
+            removedVersions.clear();
+            events.forEach(this::add);
+            changesDuringRefresh.forEach(Runnable::run);
+            log.debug("Поверх снимка индекса повторено изменений: {}", changesDuringRefresh.size());
+            changesDuringRefresh.clear();
+            refreshing = false;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.debug("Индекс опубликованных событий перестроен, событий: {}", events.size());
+    }
+
+    private IndexedEvent index(Event event) {
+        return new IndexedEvent(eventMapper.toEventShortDto(event), event.getCategory().getId(), event.getPaid(),
+                event.getEventDate(), event.getParticipantLimit(),
+                event.getConfirmedRequests() == null ? 0 : event.getConfirmedRequests(),
+                event.getVersion() == null ? 0 : event.getVersion());
+    }
+
+    private void add(IndexedEvent event) {
+        Integer slot = freeSlots.poll();
+        if (slot == null) {
+            slot = slots.size();
+            slots.add(event);
+        } else {
+            slots.set(slot, event);
+        }
+        slotByEventId.put(event.id(), slot);
+        byDate.put(new DateKey(event.eventDate(), event.id()), slot);
+        byCategory.computeIfAbsent(event.categoryId(), id -> new BitSet()).set(slot);
+        paidSlots.set(slot, event.paid());
+        availableSlots.set(slot, event.isAvailable());
+    }
+
+    private void remove(Long eventId) {
+        Integer slot = slotByEventId.remove(eventId);
+        if (slot == null) {
+            return;
+        }
+        IndexedEvent event = slots.set(slot, null);
+        byDate.remove(new DateKey(event.eventDate(), eventId));
+        byCategory.get(event.categoryId()).clear(slot);
+        paidSlots.clear(slot);
+        availableSlots.clear(slot);
+        freeSlots.push(slot);
+    }
+
+    private BitSet intersect(BitSet filter, BitSet bits, boolean negate) {
+        BitSet result = (BitSet) bits.clone();
+        if (negate) {
+            result.flip(0, slots.size());
+            // Освобождённые слоты не должны попадать в выборку после инверсии
+            freeSlots.forEach(result::clear);
+        }
+        if (filter != null) {
+            result.and(filter);
+        }
+        return result;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private record DateKey(LocalDateTime eventDate, Long eventId) implements Comparable<DateKey> {
+        @Override
+        public int compareTo(DateKey other) {
+            int result = eventDate.compareTo(other.eventDate);
+            return result != 0 ? result : eventId.compareTo(other.eventId);
+        }
+    }
+
+    private record IndexedEvent(EventShortDto event, Long categoryId, boolean paid, LocalDateTime eventDate,
+                                int participantLimit, long confirmedRequests, long version) {
+        Long id() {
+            return event.getId();
+        }
+
+        boolean isAvailable() {
+            return participantLimit == 0 || confirmedRequests < participantLimit;
+        }
+
+        IndexedEvent withConfirmedRequests(long confirmed, long newVersion) {
+            return new IndexedEvent(event, categoryId, paid, eventDate, participantLimit, confirmed, newVersion);
+        }
+
+        IndexedEvent withVersion(long newVersion) {
+            return new IndexedEvent(event, categoryId, paid, eventDate, participantLimit, confirmedRequests, newVersion);
+        }
+
+        EventShortDto toDto() {
+            return new EventShortDto(event.getId(), event.getTitle(), event.getAnnotation(), event.getCategory(),
+                    event.getEventDate(), event.getPaid(), confirmedRequests, event.getInitiator(), event.getRating());
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package ru.practicum.event.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ru.practicum.RecomendationClient;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.UserShortDto;
+import ru.practicum.dto.user.UserDto;
+import ru.practicum.feign.UserClient;
+import ru.practicum.grpc.stats.recommendation.RecommendedEventProto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Сборка рекомендаций пользователя.
+ * После получения рекомендаций от анализатора параллельно загружаются события и число взаимодействий с ними,
+ * а по загруженным событиям — их инициаторы. Всё укладывается в общий бюджет времени: не успевшие части
+ * заменяются пустыми, и пользователь получает события без рейтинга или имени инициатора вместо ошибки.
+ * Порядок событий совпадает с порядком рекомендаций анализатора. Если очередь пула рекомендаций переполнена,
+ * отклонённая часть обрабатывается так же, как не уложившаяся в бюджет.
+ */
+@Slf4j
+class RecommendationAssembler {
+    private final EventService eventService;
+    private final RecomendationClient recommendationClient;
+    private final UserClient userClient;
+    private final Executor executor;
+    private final int limit;
+    private final long budgetMillis;
+
+    RecommendationAssembler(EventService eventService, RecomendationClient recommendationClient, UserClient userClient,
+                            Executor executor, int limit, long budgetMillis) {
+        this.eventService = eventService;
+        this.recommendationClient = recommendationClient;
+        this.userClient = userClient;
+        this.executor = executor;
+        this.limit = limit;
+        this.budgetMillis = budgetMillis;
+    }
+
+    CompletableFuture<List<EventFullDto>> assemble(Long userId) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        return recommendationClient.getRecommendationsForUserAsync(userId, limit)
+                .completeOnTimeout(List.of(), budgetMillis, TimeUnit.MILLISECONDS)
+                .thenCompose(recommended -> assemble(recommended.stream()
+                        .map(RecommendedEventProto::getEventId)
+                        .distinct()
+                        .toList(), deadline));
+    }
+
+    private CompletableFuture<List<EventFullDto>> assemble(List<Long> eventIds, long deadline) {
+        if (eventIds.isEmpty()) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+
+        CompletableFuture<Map<Long, EventFullDto>> events = async(() -> eventService.getEventsByIds(eventIds))
+                .thenApply(list -> list.stream().collect(Collectors.toMap(EventFullDto::getId, Function.identity())));
+        CompletableFuture<Map<Long, Double>> ratings = recommendationClient.getInteractionsCountAsync(eventIds)
+                .thenApply(counts -> counts.stream().collect(Collectors.toMap(RecommendedEventProto::getEventId,
+                        RecommendedEventProto::getScore, Double::sum)));
+        CompletableFuture<Map<Long, String>> initiators = events
+                .thenCompose(loaded -> async(() -> loadInitiators(loaded)));
+
+        CompletableFuture<Map<Long, EventFullDto>> eventsInBudget = withinBudget(events, deadline, "события");
+        CompletableFuture<Map<Long, Double>> ratingsInBudget = withinBudget(ratings, deadline, "рейтинги");
+        CompletableFuture<Map<Long, String>> initiatorsInBudget = withinBudget(initiators, deadline, "инициаторы");
+
+        return CompletableFuture.allOf(eventsInBudget, ratingsInBudget, initiatorsInBudget)
+                .thenApply(ignored -> {
+                    Map<Long, EventFullDto> loaded = eventsInBudget.join();
+                    Map<Long, Double> eventRatings = ratingsInBudget.join();
+                    Map<Long, String> initiatorNames = initiatorsInBudget.join();
+
+                    List<EventFullDto> result = new ArrayList<>(loaded.size());
+                    for (Long eventId : eventIds) {
+                        EventFullDto event = loaded.get(eventId);
+                        if (event == null) {
+                            continue;
+                        }
+                        event.setRating(eventRatings.getOrDefault(eventId, event.getRating()));
+                        Long initiatorId = event.getInitiator().getId();
+                        event.setInitiator(new UserShortDto(initiatorId, initiatorNames.get(initiatorId)));
+                        result.add(event);
+                    }
+                    return result;
+                });
+    }
+
+    /**
+     * Отказ переполненного пула возвращается как неудачная часть, а не бросается из thenCompose,
+     * поэтому withinBudget заменяет её пустой, как не уложившуюся в бюджет.
+     */
+    private <T> CompletableFuture<T> async(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Map<Long, String> loadInitiators(Map<Long, EventFullDto> events) {
+        List<Long> initiatorIds = events.values().stream()
+                .map(event -> event.getInitiator().getId())
+                .distinct()
+                .toList();
+        if (initiatorIds.isEmpty()) {
+            return Map.of();
+        }
+        return userClient.getUsers(initiatorIds, 0, initiatorIds.size()).stream()
+                .collect(Collectors.toMap(UserDto::getId, UserDto::getName));
+    }
+
+    private <T> CompletableFuture<Map<Long, T>> withinBudget(CompletableFuture<Map<Long, T>> future, long deadline,
+                                                              String part) {
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        return future
+                .exceptionally(e -> {
+                    log.warn("Рекомендации собраны без части \"{}\": {}", part, e.getMessage());
+                    return Map.of();
+                })
+                .completeOnTimeout(Map.of(), remaining, TimeUnit.NANOSECONDS)
+                .thenApply(value -> {
+                    if (value.isEmpty() && !future.isDone()) {
+                        log.warn("Рекомендации собраны без части \"{}\": истёк бюджет {} мс", part, budgetMillis);
+                    }
+                    return value;
+                });
+    }
+}
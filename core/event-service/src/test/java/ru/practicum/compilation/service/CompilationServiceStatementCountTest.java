@@ -0,0 +1,132 @@
+package ru.practicum.compilation.service;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.catalogue.CatalogueCache;
+import ru.practicum.category.model.Category;
+import ru.practicum.compilation.mapper.CompilationMapperImpl;
+import ru.practicum.compilation.model.Compilation;
+import ru.practicum.dto.compilations.CompilationDto;
+import ru.practicum.dto.event.State;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.Location;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Число SQL-запросов при чтении страницы подборок: события всех подборок страницы и их категории загружаются
+ * одним соединением, поэтому число запросов не зависит ни от числа подборок, ни от числа событий в них.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CompilationServiceImpl.class, CompilationMapperImpl.class})
+class CompilationServiceStatementCountTest {
+    static final int COMPILATIONS = 10;
+    static final int EVENTS_PER_COMPILATION = 50;
+    static final int CATEGORIES = 10;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @MockBean
+    CatalogueCache catalogueCache;
+
+    @Autowired
+    CompilationService compilationService;
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void pageOfCompilationsIsReadWithConstantNumberOfStatements() {
+        seed();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Collection<CompilationDto> compilations = compilationService.getCompilations(true, 0, COMPILATIONS);
+
+        assertEquals(COMPILATIONS, compilations.size());
+        compilations.forEach(compilation -> {
+            assertEquals(EVENTS_PER_COMPILATION, compilation.getEvents().size());
+            assertTrue(compilation.getEvents().stream().allMatch(event -> event.getCategory().getName() != null));
+        });
+        // Запрос идентификаторов страницы и один запрос подборок с событиями и категориями
+        assertEquals(2, statistics.getPrepareStatementCount(),
+                "Запросов при чтении подборок: " + statistics.getPrepareStatementCount());
+    }
+
+    private void seed() {
+        List<Category> categories = new ArrayList<>();
+        for (int i = 0; i < CATEGORIES; i++) {
+            categories.add(entityManager.persist(new Category(null, "Категория " + i)));
+        }
+        for (int c = 0; c < COMPILATIONS; c++) {
+            Set<Event> events = new HashSet<>();
+            for (int e = 0; e < EVENTS_PER_COMPILATION; e++) {
+                events.add(entityManager.persist(event(categories.get(e % CATEGORIES))));
+            }
+            Compilation compilation = new Compilation();
+            compilation.setTitle("Подборка " + c);
+            compilation.setPinned(true);
+            compilation.setEvents(events);
+            entityManager.persist(compilation);
+        }
+        // Чтение идёт из БД, а не из контекста, заполненного при подготовке данных
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private Event event(Category category) {
+        Location location = entityManager.persist(new Location(null, Math.random() * 90, Math.random() * 180));
+
+        Event event = new Event();
+        event.setTitle("Событие");
+        event.setAnnotation("Аннотация события для проверки числа запросов");
+        event.setDescription("Описание события для проверки числа запросов");
+        event.setCategory(category);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(0);
+        event.setRequestModeration(false);
+        event.setConfirmedRequests(0L);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setInitiatorId(1L);
+        event.setState(State.PUBLISHED);
+        return event;
+    }
+
+    @SpringBootConfiguration
+    @EntityScan("ru.practicum")
+    @EnableJpaRepositories("ru.practicum")
+    static class TestConfig {
+    }
+}
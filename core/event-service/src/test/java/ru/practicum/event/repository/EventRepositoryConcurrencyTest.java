@@ -0,0 +1,162 @@
+package ru.practicum.event.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.category.model.Category;
+import ru.practicum.category.repository.CategoryRepository;
+import ru.practicum.dto.event.State;
+import ru.practicum.event.model.Event;
+import ru.practicum.event.model.Location;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Конкурентное изменение счётчика подтверждённых заявок: сколько бы потоков ни резервировали места,
+ * подтверждено ровно столько, сколько позволяет лимит участников.
+ */
+@DataJpaTest
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class EventRepositoryConcurrencyTest {
+    static final int THREADS = 32;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Autowired
+    EventRepository eventRepository;
+
+    @Autowired
+    CategoryRepository categoryRepository;
+
+    @Autowired
+    LocationRepository locationRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentIncrementsNeverExceedParticipantLimit() throws Exception {
+        int limit = 50;
+        Long eventId = saveEvent(limit).getId();
+
+        AtomicInteger admitted = new AtomicInteger();
+        runConcurrently(500, attempt -> {
+            if (changeConfirmedRequests(eventId, 1)) {
+                admitted.incrementAndGet();
+            }
+        });
+
+        assertEquals(limit, admitted.get());
+        assertEquals(limit, confirmedRequests(eventId));
+    }
+
+    @Test
+    void concurrentBatchesAndReleasesKeepCounterConsistent() throws Exception {
+        int limit = 100;
+        Long eventId = saveEvent(limit).getId();
+
+        // Пакеты по 3 места вперемешку с освобождением одного места; итог равен сумме успешных изменений
+        AtomicInteger expected = new AtomicInteger();
+        runConcurrently(600, attempt -> {
+            int delta = attempt % 4 == 0 ? -1 : 3;
+            if (changeConfirmedRequests(eventId, delta)) {
+                expected.addAndGet(delta);
+            }
+        });
+
+        long confirmed = confirmedRequests(eventId);
+        assertEquals(expected.get(), confirmed);
+        assertTrue(confirmed >= 0 && confirmed <= limit, "Счётчик вне границ: " + confirmed);
+    }
+
+    private boolean changeConfirmedRequests(Long eventId, int delta) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Integer changed = transactionTemplate.execute(status -> eventRepository.changeConfirmedRequests(eventId, delta));
+        return changed != null && changed > 0;
+    }
+
+    private long confirmedRequests(Long eventId) {
+        return eventRepository.findById(eventId).orElseThrow().getConfirmedRequests();
+    }
+
+    private void runConcurrently(int attempts, Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                int number = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    attempt.run(number);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Event saveEvent(int participantLimit) {
+        Category category = categoryRepository.save(new Category(null, "category-" + UUID.randomUUID()));
+        Location location = locationRepository.save(new Location(null, Math.random() * 90, Math.random() * 180));
+
+        Event event = new Event();
+        event.setTitle("Событие");
+        event.setAnnotation("Аннотация события для проверки счётчика");
+        event.setDescription("Описание события для проверки счётчика");
+        event.setCategory(category);
+        event.setLocation(location);
+        event.setEventDate(LocalDateTime.now().plusDays(1));
+        event.setPaid(false);
+        event.setParticipantLimit(participantLimit);
+        event.setRequestModeration(false);
+        event.setConfirmedRequests(0L);
+        event.setCreatedOn(LocalDateTime.now());
+        event.setInitiatorId(1L);
+        event.setState(State.PUBLISHED);
+        return eventRepository.save(event);
+    }
+
+    private interface Attempt {
+        void run(int attempt) throws Exception;
+    }
+
+    @SpringBootConfiguration
+    @EntityScan("ru.practicum")
+    @EnableJpaRepositories("ru.practicum")
+    static class TestConfig {
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.event.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.RecomendationClient;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.UserShortDto;
+import ru.practicum.dto.user.UserDto;
+import ru.practicum.feign.UserClient;
+import ru.practicum.grpc.stats.recommendation.RecommendedEventProto;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Сборка рекомендаций при переполненном пуле: отклонённые части заменяются пустыми, а не приводят к ошибке.
+ */
+class RecommendationAssemblerTest {
+    static final long USER_ID = 1L;
+
+    final CountDownLatch blocker = new CountDownLatch(1);
+    ThreadPoolExecutor executor;
+    RecommendationAssembler assembler;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        RecomendationClient recommendationClient = mock(RecomendationClient.class);
+        when(recommendationClient.getRecommendationsForUserAsync(anyLong(), anyInt()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(recommended(10L), recommended(20L))));
+        when(recommendationClient.getInteractionsCountAsync(anyList()))
+                .thenReturn(CompletableFuture.completedFuture(List.of(recommended(10L), recommended(20L))));
+
+        EventService eventService = mock(EventService.class);
+        when(eventService.getEventsByIds(anyList())).thenReturn(List.of(event(20L), event(10L)));
+
+        UserClient userClient = mock(UserClient.class);
+        when(userClient.getUsers(anyList(), anyInt(), anyInt()))
+                .thenReturn(List.of(UserDto.builder().id(100L).name("Инициатор").build()));
+
+        assembler = new RecommendationAssembler(eventService, recommendationClient, userClient, executor, 10, 2_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        blocker.countDown();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void assemblesEventsInRecommendationOrder() throws Exception {
+        List<EventFullDto> events = assembler.assemble(USER_ID).get(5, TimeUnit.SECONDS);
+
+        assertEquals(List.of(10L, 20L), events.stream().map(EventFullDto::getId).toList());
+        assertEquals("Инициатор", events.get(0).getInitiator().getName());
+    }
+
+    @Test
+    void saturatedPoolDegradesToEmptyPartsInsteadOfFailing() throws Exception {
+        // Единственный поток занят, единственное место в очереди тоже: следующая задача будет отклонена
+        executor.execute(this::await);
+        executor.execute(this::await);
+
+        List<EventFullDto> events = assembler.assemble(USER_ID).get(5, TimeUnit.SECONDS);
+
+        assertTrue(events.isEmpty());
+    }
+
+    private void await() {
+        try {
+            blocker.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RecommendedEventProto recommended(long eventId) {
+        return RecommendedEventProto.newBuilder().setEventId(eventId).setScore(1.0).build();
+    }
+
+    private static EventFullDto event(long eventId) {
+        return EventFullDto.builder()
+                .id(eventId)
+                .initiator(new UserShortDto(100L, null))
+                .rating(0.0)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package ru.practicum.concurrent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Отслеживает через JFR события jdk.VirtualThreadPinned: виртуальный поток заблокировался,
+ * не освободив несущий поток (обычно внутри synchronized). Такие места пишутся в лог со стеком
+ * и считаются в метрике jvm.threads.virtual.pinned.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class PinnedThreadMonitor {
+    static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    static final int STACK_DEPTH = 10;
+
+    final Counter pinned;
+    final long thresholdMillis;
+    RecordingStream stream;
+
+    public PinnedThreadMonitor(MeterRegistry meterRegistry,
+                               @Value("${threads.pinned-monitor.threshold-ms:20}") long thresholdMillis) {
+        this.pinned = meterRegistry.counter("jvm.threads.virtual.pinned");
+        this.thresholdMillis = thresholdMillis;
+    }
+
+    @PostConstruct
+    void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMillis)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    void stop() {
+        stream.close();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.increment();
+        String stack = event.getStackTrace() == null ? "" : event.getStackTrace().getFrames().stream()
+                .limit(STACK_DEPTH)
+                .map(this::format)
+                .collect(Collectors.joining("\n\tat ", "\n\tat ", ""));
+        log.warn("Виртуальный поток удерживал несущий поток {} мс{}", event.getDuration().toMillis(), stack);
+    }
+
+    private String format(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber();
+    }
+}
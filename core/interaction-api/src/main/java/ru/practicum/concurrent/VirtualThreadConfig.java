@@ -0,0 +1,54 @@
+package ru.practicum.concurrent;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.channelfactory.GrpcChannelConfigurer;
+import net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Режим виртуальных потоков, включается свойством spring.threads.virtual.enabled.
+ * Пул Tomcat и исполнитель @Async переключает сам Spring Boot; здесь на виртуальные потоки
+ * переводятся вызовы gRPC-клиентов и, в сервисах с gRPC-сервером, обработка входящих вызовов.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class VirtualThreadConfig {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public GrpcChannelConfigurer virtualThreadChannelConfigurer() {
+        log.info("gRPC-клиенты выполняются в виртуальных потоках");
+        return (channelBuilder, name) -> channelBuilder.executor(executor);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "net.devh.boot.grpc.server.serverfactory.GrpcServerConfigurer")
+    @ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+    static class GrpcServerVirtualThreadConfig {
+        private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        @Bean
+        public GrpcServerConfigurer virtualThreadServerConfigurer() {
+            log.info("Вызовы gRPC-сервера обрабатываются в виртуальных потоках");
+            return serverBuilder -> serverBuilder.executor(executor);
+        }
+
+        @PreDestroy
+        void stop() {
+            executor.shutdown();
+        }
+    }
+}
@@ -49,4 +49,6 @@ public class EventWithCommentsDto {
     private LocalDateTime publishedOn;
 
     private List<CommentDto> comments;
+
+    private Long commentsCount;
 }
\ No newline at end of file
@@ -2,6 +2,7 @@ package ru.practicum.exception;
 
 
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -18,7 +19,8 @@ public class ErrorHandler {
         return new ErrorResponse("NOT_FOUND", "The required object was not found.", e.getMessage());
     }
 
-    @ExceptionHandler({ConflictException.class, DataIntegrityViolationException.class})
+    @ExceptionHandler({ConflictException.class, DataIntegrityViolationException.class,
+            OptimisticLockingFailureException.class})
     @ResponseStatus(HttpStatus.CONFLICT)
     public ErrorResponse handleConflict(RuntimeException e) {
         return new ErrorResponse("CONFLICT", "Integrity constraint has been violated.", e.getMessage());
@@ -37,6 +39,13 @@ public class ErrorHandler {
                 e.getMessage());
     }
 
+    @ExceptionHandler(ServiceUnavailableException.class)
+    @ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+    public ErrorResponse handleServiceUnavailable(ServiceUnavailableException e) {
+        return new ErrorResponse("SERVICE_UNAVAILABLE", "The dependent service is temporarily unavailable.",
+                e.getMessage());
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ErrorResponse handleMethodArgumentNotValid(MethodArgumentNotValidException e) {
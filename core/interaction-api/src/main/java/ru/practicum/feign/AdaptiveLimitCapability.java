@@ -0,0 +1,100 @@
+package ru.practicum.feign;
+
+import feign.Capability;
+import feign.Client;
+import feign.Response;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+import ru.practicum.exception.ServiceUnavailableException;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Подключает ко всем Feign-клиентам адаптивное ограничение одновременных вызовов по каждому сервису.
+ * Если лимит сервиса исчерпан, вызов сразу завершается {@link ServiceUnavailableException},
+ * не занимая поток в ожидании медленного сервиса.
+ * Границу bulkhead для отдельного сервиса можно задать свойством feign.limiter.services.&lt;имя&gt;.max-limit.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class AdaptiveLimitCapability implements Capability {
+    final MeterRegistry meterRegistry;
+    final Environment environment;
+    final boolean enabled;
+    final int initialLimit;
+    final int minLimit;
+    final int maxLimit;
+    final double backoff;
+    final long latencyThresholdNanos;
+    final Map<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdaptiveLimitCapability(MeterRegistry meterRegistry,
+                                   Environment environment,
+                                   @Value("${feign.limiter.enabled:true}") boolean enabled,
+                                   @Value("${feign.limiter.initial-limit:20}") int initialLimit,
+                                   @Value("${feign.limiter.min-limit:1}") int minLimit,
+                                   @Value("${feign.limiter.max-limit:100}") int maxLimit,
+                                   @Value("${feign.limiter.backoff:0.9}") double backoff,
+                                   @Value("${feign.limiter.latency-threshold-ms:1000}") long latencyThresholdMillis) {
+        this.meterRegistry = meterRegistry;
+        this.environment = environment;
+        this.enabled = enabled;
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.latencyThresholdNanos = latencyThresholdMillis * 1_000_000;
+    }
+
+    @Override
+    public Client enrich(Client client) {
+        if (!enabled) {
+            return client;
+        }
+        return (request, options) -> {
+            String service = request.requestTemplate().feignTarget().name();
+            AdaptiveLimiter limiter = limiters.computeIfAbsent(service, this::createLimiter);
+            if (!limiter.tryAcquire()) {
+                meterRegistry.counter("feign.client.rejected", "client", service).increment();
+                log.warn("Превышен лимит одновременных вызовов сервиса {}: {}", service, limiter.getLimit());
+                throw new ServiceUnavailableException("Service " + service + " is overloaded");
+            }
+
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = client.execute(request, options);
+            } catch (IOException | RuntimeException e) {
+                limiter.onDropped();
+                throw e;
+            }
+            // 4xx — штатные ответы сервиса, перегрузку означают только 5xx и долгие ответы
+            if (response.status() >= 500 || System.nanoTime() - start > latencyThresholdNanos) {
+                limiter.onDropped();
+            } else {
+                limiter.onSuccess();
+            }
+            return response;
+        };
+    }
+
+    private AdaptiveLimiter createLimiter(String service) {
+        int serviceMaxLimit = environment.getProperty("feign.limiter.services." + service + ".max-limit",
+                Integer.class, maxLimit);
+        AdaptiveLimiter limiter = new AdaptiveLimiter(initialLimit, minLimit, serviceMaxLimit, backoff);
+        meterRegistry.gauge("feign.client.inflight", Tags.of("client", service),
+                limiter, AdaptiveLimiter::getInflight);
+        meterRegistry.gauge("feign.client.limit", Tags.of("client", service),
+                limiter, AdaptiveLimiter::getLimit);
+        return limiter;
+    }
+}
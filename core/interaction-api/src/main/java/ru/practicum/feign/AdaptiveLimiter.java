@@ -0,0 +1,51 @@
+package ru.practicum.feign;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных вызовов одного сервиса (AIMD).
+ * Каждый успешный быстрый ответ увеличивает лимит примерно на единицу за "окно" из limit вызовов,
+ * ошибка или медленный ответ умножает лимит на backoff. Верхняя граница лимита работает как bulkhead:
+ * больше maxLimit вызовов одного сервиса не выполняется ни при каких условиях.
+ */
+class AdaptiveLimiter {
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoff;
+    private final AtomicInteger inflight = new AtomicInteger();
+    private double limit;
+
+    AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double backoff) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoff = backoff;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    boolean tryAcquire() {
+        int current = inflight.incrementAndGet();
+        if (current > getLimit()) {
+            inflight.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    synchronized void onSuccess() {
+        inflight.decrementAndGet();
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    synchronized void onDropped() {
+        inflight.decrementAndGet();
+        limit = Math.max(minLimit, limit * backoff);
+    }
+
+    synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    int getInflight() {
+        return inflight.get();
+    }
+}
@@ -1,6 +1,5 @@
 package ru.practicum.feign;
 
-import jakarta.validation.Valid;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.dto.event.EventFullDto;
@@ -10,9 +9,12 @@ public interface EventClient {
     @GetMapping("/{eventId}")
     EventFullDto getEventByIdFeign(@PathVariable Long eventId);
 
+    @GetMapping("/{eventId}/version")
+    Long getEventVersion(@PathVariable Long eventId);
+
     @GetMapping("/{userId}/{eventId}")
     EventFullDto getEventByUserFeign(@PathVariable Long userId, @PathVariable Long eventId);
 
-    @PostMapping("/{eventId}")
-    void updateEventForRequests(@PathVariable Long eventId, @Valid @RequestBody EventFullDto eventFullDto);
+    @PostMapping("/{eventId}/confirmed")
+    Boolean changeConfirmedRequests(@PathVariable Long eventId, @RequestParam Integer delta);
 }
\ No newline at end of file
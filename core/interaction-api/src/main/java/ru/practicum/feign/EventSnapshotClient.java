@@ -0,0 +1,66 @@
+package ru.practicum.feign;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.internal.EventInternalClient;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш снимков событий поверх {@link EventInternalClient} для read-mostly сценариев.
+ * Снимок живёт ttl миллисекунд, после чего перепроверяется по версии события:
+ * если версия не изменилась, снимок продлевается без повторной загрузки события и его инициатора.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventSnapshotClient {
+    final EventInternalClient eventClient;
+    final long ttlMillis;
+    final int maxSize;
+    final Map<Long, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    public EventSnapshotClient(EventInternalClient eventClient,
+                               @Value("${event-snapshot.ttl-ms:2000}") long ttlMillis,
+                               @Value("${event-snapshot.max-size:10000}") int maxSize) {
+        this.eventClient = eventClient;
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    public EventFullDto getEvent(Long eventId) {
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(eventId);
+        if (snapshot != null && snapshot.expiresAt() > now) {
+            return snapshot.event().toBuilder().build();
+        }
+
+        if (snapshot != null && Objects.equals(eventClient.getEventVersion(eventId), snapshot.event().getVersion())) {
+            snapshots.put(eventId, new Snapshot(snapshot.event(), now + ttlMillis));
+            return snapshot.event().toBuilder().build();
+        }
+
+        EventFullDto event = eventClient.getEvent(eventId);
+        if (snapshots.size() >= maxSize) {
+            snapshots.values().removeIf(s -> s.expiresAt() <= now);
+        }
+        if (snapshots.size() < maxSize) {
+            snapshots.put(eventId, new Snapshot(event, now + ttlMillis));
+        }
+        return event.toBuilder().build();
+    }
+
+    public void evict(Long eventId) {
+        log.debug("Сброс снимка события {}", eventId);
+        snapshots.remove(eventId);
+    }
+
+    private record Snapshot(EventFullDto event, long expiresAt) {
+    }
+}
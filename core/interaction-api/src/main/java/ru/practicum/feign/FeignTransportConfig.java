@@ -0,0 +1,33 @@
+package ru.practicum.feign;
+
+import feign.Client;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.loadbalancer.FeignBlockingLoadBalancerClient;
+import org.springframework.cloud.openfeign.loadbalancer.LoadBalancerFeignRequestTransformer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+@Configuration
+@EnableConfigurationProperties(FeignTransportProperties.class)
+public class FeignTransportConfig {
+
+    @Bean
+    public PooledFeignClient pooledFeignClient(FeignTransportProperties properties) {
+        return new PooledFeignClient(properties);
+    }
+
+    // Балансировщик выбирает экземпляр сервиса, а запрос уходит через пул соединений этого сервиса
+    @Bean
+    @Primary
+    public Client feignClient(PooledFeignClient pooledFeignClient,
+                              LoadBalancerClient loadBalancerClient,
+                              LoadBalancerClientFactory loadBalancerClientFactory,
+                              ObjectProvider<LoadBalancerFeignRequestTransformer> transformers) {
+        return new FeignBlockingLoadBalancerClient(pooledFeignClient, loadBalancerClient,
+                loadBalancerClientFactory, transformers.orderedStream().toList());
+    }
+}
@@ -0,0 +1,40 @@
+package ru.practicum.feign;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки транспорта Feign-клиентов: тип клиента и параметры пула соединений,
+ * общие и переопределённые для отдельных сервисов (feign.transport.services.&lt;имя сервиса&gt;).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "feign.transport")
+public class FeignTransportProperties {
+    private Type type = Type.HC5;
+    private Pool pool = new Pool();
+    private Map<String, Pool> services = new HashMap<>();
+
+    public Pool getPool(String service) {
+        return services.getOrDefault(service, pool);
+    }
+
+    public enum Type {
+        HC5,
+        HTTP2
+    }
+
+    @Getter
+    @Setter
+    public static class Pool {
+        private int maxConnections = 200;
+        private int maxConnectionsPerRoute = 50;
+        private long connectTimeoutMs = 1000;
+        private long idleTimeoutMs = 30000;
+        private long timeToLiveMs = 300000;
+    }
+}
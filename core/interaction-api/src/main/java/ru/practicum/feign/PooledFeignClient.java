@@ -0,0 +1,76 @@
+package ru.practicum.feign;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feign-клиент, который держит отдельный пул keep-alive соединений для каждого сервиса.
+ * Пул создаётся при первом вызове сервиса по настройкам {@link FeignTransportProperties}.
+ */
+@Slf4j
+public class PooledFeignClient implements Client, DisposableBean {
+    private final FeignTransportProperties properties;
+    private final Map<String, Client> clients = new ConcurrentHashMap<>();
+    private final Map<String, CloseableHttpClient> httpClients = new ConcurrentHashMap<>();
+
+    public PooledFeignClient(FeignTransportProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        String service = request.requestTemplate().feignTarget().name();
+        return clients.computeIfAbsent(service, this::createClient).execute(request, options);
+    }
+
+    @Override
+    public void destroy() throws IOException {
+        for (CloseableHttpClient httpClient : httpClients.values()) {
+            httpClient.close();
+        }
+    }
+
+    private Client createClient(String service) {
+        FeignTransportProperties.Pool pool = properties.getPool(service);
+        log.info("Создан транспорт {} для сервиса {}", properties.getType(), service);
+        if (properties.getType() == FeignTransportProperties.Type.HTTP2) {
+            // HTTP/2 мультиплексирует запросы в одном соединении, поэтому размер пула здесь не задаётся
+            return new Http2Client(HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_2)
+                    .connectTimeout(Duration.ofMillis(pool.getConnectTimeoutMs()))
+                    .build());
+        }
+
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .setConnectionManager(PoolingHttpClientConnectionManagerBuilder.create()
+                        .setMaxConnTotal(pool.getMaxConnections())
+                        .setMaxConnPerRoute(pool.getMaxConnectionsPerRoute())
+                        .setDefaultConnectionConfig(ConnectionConfig.custom()
+                                .setConnectTimeout(Timeout.ofMilliseconds(pool.getConnectTimeoutMs()))
+                                .setTimeToLive(TimeValue.ofMilliseconds(pool.getTimeToLiveMs()))
+                                .build())
+                        .build())
+                .evictIdleConnections(TimeValue.ofMilliseconds(pool.getIdleTimeoutMs()))
+                .disableCookieManagement()
+                .build();
+        httpClients.put(service, httpClient);
+        return new ApacheHttp5Client(httpClient);
+    }
+}
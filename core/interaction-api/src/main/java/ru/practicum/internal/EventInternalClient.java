@@ -0,0 +1,80 @@
+package ru.practicum.internal;
+
+import io.grpc.StatusRuntimeException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.feign.EventClient;
+import ru.practicum.grpc.core.event.ChangeConfirmedRequestsProto;
+import ru.practicum.grpc.core.event.EventIdRequest;
+import ru.practicum.grpc.core.event.EventInternalControllerGrpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Внутренние вызовы event-service: загрузка события, его версии и изменение счётчика подтверждённых заявок.
+ * Транспорт выбирается свойством internal-api.event-service.transport: feign (по умолчанию) или grpc.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class EventInternalClient {
+    static final String SERVICE = "event-service";
+
+    final EventClient eventClient;
+    final boolean grpc;
+    final long deadlineMillis;
+
+    @GrpcClient(SERVICE)
+    EventInternalControllerGrpc.EventInternalControllerBlockingStub stub;
+
+    public EventInternalClient(EventClient eventClient,
+                               @Value("${internal-api.event-service.transport:feign}") String transport,
+                               @Value("${internal-api.deadline-ms:3000}") long deadlineMillis) {
+        this.eventClient = eventClient;
+        this.grpc = "grpc".equalsIgnoreCase(transport);
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public EventFullDto getEvent(Long eventId) {
+        if (!grpc) {
+            return eventClient.getEventByIdFeign(eventId);
+        }
+        try {
+            return InternalApiMapper.toDto(stub().getEvent(EventIdRequest.newBuilder().setEventId(eventId).build()));
+        } catch (StatusRuntimeException e) {
+            throw InternalApiMapper.toException(SERVICE, e);
+        }
+    }
+
+    public Long getEventVersion(Long eventId) {
+        if (!grpc) {
+            return eventClient.getEventVersion(eventId);
+        }
+        try {
+            return stub().getEventVersion(EventIdRequest.newBuilder().setEventId(eventId).build()).getVersion();
+        } catch (StatusRuntimeException e) {
+            throw InternalApiMapper.toException(SERVICE, e);
+        }
+    }
+
+    public boolean changeConfirmedRequests(Long eventId, int delta) {
+        if (!grpc) {
+            return eventClient.changeConfirmedRequests(eventId, delta);
+        }
+        try {
+            return stub().changeConfirmedRequests(ChangeConfirmedRequestsProto.newBuilder()
+                    .setEventId(eventId)
+                    .setDelta(delta)
+                    .build()).getChanged();
+        } catch (StatusRuntimeException e) {
+            throw InternalApiMapper.toException(SERVICE, e);
+        }
+    }
+
+    private EventInternalControllerGrpc.EventInternalControllerBlockingStub stub() {
+        return stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,128 @@
+package ru.practicum.internal;
+
+import com.google.protobuf.Timestamp;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import ru.practicum.dto.category.CategoryResponseDto;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.dto.event.LocationDto;
+import ru.practicum.dto.event.State;
+import ru.practicum.dto.event.UserShortDto;
+import ru.practicum.dto.user.UserDto;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.exception.NotFoundException;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.grpc.core.event.EventProto;
+import ru.practicum.grpc.core.user.UserProto;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Преобразования DTO в protobuf-сообщения внутреннего gRPC API и обратно,
+ * а также перевод исключений сервисов в статусы gRPC и статусов в исключения на стороне клиента.
+ */
+public final class InternalApiMapper {
+
+    private InternalApiMapper() {
+    }
+
+    public static EventProto toProto(EventFullDto event) {
+        EventProto.Builder builder = EventProto.newBuilder()
+                .setId(event.getId())
+                .setTitle(event.getTitle())
+                .setAnnotation(event.getAnnotation())
+                .setDescription(event.getDescription())
+                .setCategoryId(event.getCategory().getId())
+                .setCategoryName(event.getCategory().getName())
+                .setEventDate(toTimestamp(event.getEventDate()))
+                .setLat(event.getLocation().getLat())
+                .setLon(event.getLocation().getLon())
+                .setPaid(event.getPaid())
+                .setParticipantLimit(event.getParticipantLimit())
+                .setRequestModeration(event.getRequestModeration())
+                .setConfirmedRequests(event.getConfirmedRequests() == null ? 0 : event.getConfirmedRequests())
+                .setCreatedOn(toTimestamp(event.getCreatedOn()))
+                .setInitiatorId(event.getInitiator().getId())
+                .setInitiatorName(event.getInitiator().getName())
+                .setState(event.getState().name());
+        if (event.getPublishedOn() != null) {
+            builder.setPublishedOn(toTimestamp(event.getPublishedOn()));
+        }
+        if (event.getVersion() != null) {
+            builder.setVersion(event.getVersion());
+        }
+        return builder.build();
+    }
+
+    public static EventFullDto toDto(EventProto event) {
+        return EventFullDto.builder()
+                .id(event.getId())
+                .title(event.getTitle())
+                .annotation(event.getAnnotation())
+                .description(event.getDescription())
+                .category(new CategoryResponseDto(event.getCategoryId(), event.getCategoryName()))
+                .eventDate(toLocalDateTime(event.getEventDate()))
+                .location(new LocationDto(event.getLat(), event.getLon()))
+                .paid(event.getPaid())
+                .participantLimit(event.getParticipantLimit())
+                .requestModeration(event.getRequestModeration())
+                .confirmedRequests(event.getConfirmedRequests())
+                .createdOn(toLocalDateTime(event.getCreatedOn()))
+                .initiator(new UserShortDto(event.getInitiatorId(), event.getInitiatorName()))
+                .state(State.valueOf(event.getState()))
+                .publishedOn(event.hasPublishedOn() ? toLocalDateTime(event.getPublishedOn()) : null)
+                .version(event.hasVersion() ? event.getVersion() : null)
+                .build();
+    }
+
+    public static UserProto toProto(UserDto user) {
+        return UserProto.newBuilder()
+                .setId(user.getId())
+                .setName(user.getName())
+                .setEmail(user.getEmail())
+                .build();
+    }
+
+    public static UserDto toDto(UserProto user) {
+        return UserDto.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .build();
+    }
+
+    public static StatusRuntimeException toStatus(Exception e) {
+        Status status;
+        if (e instanceof NotFoundException) {
+            status = Status.NOT_FOUND;
+        } else if (e instanceof ConflictException) {
+            status = Status.FAILED_PRECONDITION;
+        } else {
+            status = Status.INTERNAL;
+        }
+        return status.withDescription(e.getMessage()).withCause(e).asRuntimeException();
+    }
+
+    public static RuntimeException toException(String service, StatusRuntimeException e) {
+        String message = e.getStatus().getDescription();
+        return switch (e.getStatus().getCode()) {
+            case NOT_FOUND -> new NotFoundException(message);
+            case FAILED_PRECONDITION -> new ConflictException(message);
+            case UNAVAILABLE, DEADLINE_EXCEEDED, RESOURCE_EXHAUSTED ->
+                    new ServiceUnavailableException("Service " + service + " is unavailable: " + e.getStatus().getCode());
+            default -> e;
+        };
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return Timestamp.newBuilder()
+                .setSeconds(dateTime.toEpochSecond(ZoneOffset.UTC))
+                .setNanos(dateTime.getNano())
+                .build();
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return LocalDateTime.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos(), ZoneOffset.UTC);
+    }
+}
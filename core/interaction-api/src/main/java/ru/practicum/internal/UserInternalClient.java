@@ -0,0 +1,51 @@
+package ru.practicum.internal;
+
+import io.grpc.StatusRuntimeException;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.dto.user.UserDto;
+import ru.practicum.feign.UserClient;
+import ru.practicum.grpc.core.user.UserIdRequest;
+import ru.practicum.grpc.core.user.UserInternalControllerGrpc;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Внутренние вызовы user-service: получение пользователя по id, в том числе для проверки его существования.
+ * Транспорт выбирается свойством internal-api.user-service.transport: feign (по умолчанию) или grpc.
+ */
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserInternalClient {
+    static final String SERVICE = "user-service";
+
+    final UserClient userClient;
+    final boolean grpc;
+    final long deadlineMillis;
+
+    @GrpcClient(SERVICE)
+    UserInternalControllerGrpc.UserInternalControllerBlockingStub stub;
+
+    public UserInternalClient(UserClient userClient,
+                              @Value("${internal-api.user-service.transport:feign}") String transport,
+                              @Value("${internal-api.deadline-ms:3000}") long deadlineMillis) {
+        this.userClient = userClient;
+        this.grpc = "grpc".equalsIgnoreCase(transport);
+        this.deadlineMillis = deadlineMillis;
+    }
+
+    public UserDto getUserById(Long userId) {
+        if (!grpc) {
+            return userClient.getUserById(userId);
+        }
+        try {
+            return InternalApiMapper.toDto(stub.withDeadlineAfter(deadlineMillis, TimeUnit.MILLISECONDS)
+                    .getUser(UserIdRequest.newBuilder().setUserId(userId).build()));
+        } catch (StatusRuntimeException e) {
+            throw InternalApiMapper.toException(SERVICE, e);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package ru.practicum.controller;
 
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.dto.request.EventRequestStatusUpdateRequest;
 import ru.practicum.dto.request.EventRequestStatusUpdateResult;
 import ru.practicum.dto.request.ParticipationRequestDto;
@@ -19,10 +24,24 @@ public class EventRequestController {
 
     @GetMapping
     public List<ParticipationRequestDto> getEventParticipants(
+            @PathVariable Long userId,
+            @PathVariable Long eventId,
+            @RequestParam(required = false) @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Long afterId,
+            @RequestParam(required = false) @Positive Integer size) {
+        log.info("Получен запрос GET /users/{}/events/{}/requests?from={}&afterId={}&size={}",
+                userId, eventId, from, afterId, size);
+        return requestService.getEventParticipants(userId, eventId, from, afterId, size);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportEventParticipants(
             @PathVariable Long userId,
             @PathVariable Long eventId) {
-        log.info("Получен запрос GET /users/{}/events/{}/requests", userId, eventId);
-        return requestService.getEventParticipants(userId, eventId);
+        log.info("Получен запрос GET /users/{}/events/{}/requests/export", userId, eventId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(requestService.exportEventParticipants(userId, eventId));
     }
 
     @PatchMapping
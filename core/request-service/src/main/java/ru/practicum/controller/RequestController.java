@@ -1,5 +1,7 @@
 package ru.practicum.controller;
 
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -17,9 +19,13 @@ public class RequestController {
     private final RequestService requestService;
 
     @GetMapping
-    public List<ParticipationRequestDto> getUserRequests(@PathVariable Long userId) {
-        log.info("Получен запрос GET /users/{}/requests", userId);
-        return requestService.getUserRequests(userId);
+    public List<ParticipationRequestDto> getUserRequests(
+            @PathVariable Long userId,
+            @RequestParam(required = false) @PositiveOrZero Integer from,
+            @RequestParam(required = false) @Positive Long afterId,
+            @RequestParam(required = false) @Positive Integer size) {
+        log.info("Получен запрос GET /users/{}/requests?from={}&afterId={}&size={}", userId, from, afterId, size);
+        return requestService.getUserRequests(userId, from, afterId, size);
     }
 
     @PostMapping
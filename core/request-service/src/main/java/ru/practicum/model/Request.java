@@ -12,7 +12,13 @@ import java.time.LocalDateTime;
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
-@Table(name = "requests", schema = "public")
+@Table(name = "requests", schema = "public", indexes = {
+        @Index(name = "ix_requests_event_status", columnList = "event_id, status"),
+        @Index(name = "ix_requests_event_requester_status", columnList = "event_id, requester_id, status"),
+        // Курсорная пагинация по afterId: фильтр и сортировка по id обслуживаются одним индексом
+        @Index(name = "ix_requests_event_id", columnList = "event_id, id"),
+        @Index(name = "ix_requests_requester_id", columnList = "requester_id, id")
+})
 @EqualsAndHashCode(of = "id")
 @Getter
 @Setter
@@ -1,10 +1,20 @@
 package ru.practicum.repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.dto.request.ParticipationRequestDto;
 import ru.practicum.dto.request.RequestStatus;
 import ru.practicum.model.Request;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RequestRepository extends JpaRepository<Request, Long> {
     Boolean existsByEventIdAndRequesterIdAndStatusNot(Long event, Long requester, RequestStatus status);
@@ -13,9 +23,44 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
 
     List<Request> findAllByEventId(Long eventId);
 
+    List<Request> findAllByRequesterIdAndIdGreaterThan(Long requesterId, Long afterId, Pageable pageable);
+
+    List<Request> findAllByEventIdAndIdGreaterThan(Long eventId, Long afterId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT r FROM Request r WHERE r.eventId = :eventId ORDER BY r.id")
+    Stream<Request> streamAllByEventId(@Param("eventId") Long eventId);
+
     List<Request> findAllByEventIdAndStatus(Long event, RequestStatus status);
 
     List<Request> findAllByEventIdAndIdIn(Long event, List<Long> requestIds);
 
+    @Query("SELECT new ru.practicum.dto.request.ParticipationRequestDto(r.id, r.eventId, r.requesterId, r.status, r.created) " +
+            "FROM Request r WHERE r.eventId = :eventId AND r.id IN :ids ORDER BY r.id")
+    List<ParticipationRequestDto> findDtosByEventIdAndIdIn(@Param("eventId") Long eventId, @Param("ids") List<Long> ids);
+
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("UPDATE Request r SET r.status = :status " +
+            "WHERE r.eventId = :eventId AND r.id IN :ids AND r.status = :expected")
+    int updateStatusByEventIdAndIdIn(@Param("eventId") Long eventId,
+                                     @Param("ids") List<Long> ids,
+                                     @Param("expected") RequestStatus expected,
+                                     @Param("status") RequestStatus status);
+
+    // Отклонённые заявки возвращаются тем же UPDATE, без предварительной выборки всех ожидающих
+    @Query(value = "UPDATE requests SET status = 'REJECTED' WHERE event_id = :eventId AND status = 'PENDING' " +
+            "RETURNING id, requester_id AS \"requesterId\", created", nativeQuery = true)
+    List<RejectedRequest> rejectAllPending(@Param("eventId") Long eventId);
+
+    interface RejectedRequest {
+        Long getId();
+
+        Long getRequesterId();
 
+        LocalDateTime getCreated();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,176 @@
+package ru.practicum.service;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.feign.EventSnapshotClient;
+import ru.practicum.internal.EventInternalClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Допуск автоматически подтверждаемых заявок на участие.
+ * Конкурентные заявки на одно событие объединяются: первый пришедший поток забирает всю очередь
+ * и одним изменением счётчика резервирует места сразу для всех ожидающих.
+ * Если места закончились, событие помечается исчерпанным и новые заявки отклоняются без обращения к event-service.
+ * Место, зарезервированное объединяющим потоком, принадлежит транзакции ожидавшего потока: каждый допущенный
+ * поток сам регистрирует возврат своего места на случай отката, поэтому откат одной заявки не затрагивает остальные.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RegistrationAdmission {
+    final EventInternalClient eventClient;
+    final EventSnapshotClient eventSnapshotClient;
+    final boolean enabled;
+    final long reseedMillis;
+    final Map<Long, EventPermits> permits = new ConcurrentHashMap<>();
+    // Отметка исчерпания хранится отдельно от очереди ожидающих, которую объединяющий поток может удалить из карты
+    final Map<Long, Long> exhaustedUntil = new ConcurrentHashMap<>();
+
+    public RegistrationAdmission(EventInternalClient eventClient,
+                                 EventSnapshotClient eventSnapshotClient,
+                                 @Value("${registration.admission.enabled:false}") boolean enabled,
+                                 @Value("${registration.admission.reseed-ms:1000}") long reseedMillis) {
+        this.eventClient = eventClient;
+        this.eventSnapshotClient = eventSnapshotClient;
+        this.enabled = enabled;
+        this.reseedMillis = reseedMillis;
+    }
+
+    public void admit(Long eventId) {
+        boolean admitted;
+        if (enabled) {
+            if (isExhausted(eventId)) {
+                admitted = false;
+            } else {
+                EventPermits eventPermits = permits.computeIfAbsent(eventId, id -> new EventPermits());
+                CompletableFuture<Boolean> waiter = new CompletableFuture<>();
+                eventPermits.waiters.add(waiter);
+                combine(eventId, eventPermits);
+                admitted = join(waiter);
+            }
+        } else {
+            admitted = eventClient.changeConfirmedRequests(eventId, 1);
+        }
+
+        if (!admitted) {
+            throw new ConflictException("Достигнут лимит запросов на участие в событии с id=" + eventId);
+        }
+        // Регистрируется сразу после резервирования, до любых действий, способных прервать вызывающий поток
+        releaseOnRollback(eventId);
+        eventSnapshotClient.evict(eventId);
+    }
+
+    public void release(Long eventId) {
+        eventClient.changeConfirmedRequests(eventId, -1);
+        eventSnapshotClient.evict(eventId);
+        exhaustedUntil.remove(eventId);
+    }
+
+    /**
+     * Счётчик подтверждённых заявок меняется в event-service вне локальной транзакции,
+     * поэтому при её откате зарезервированное место возвращается.
+     */
+    private void releaseOnRollback(Long eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    release(eventId);
+                } catch (RuntimeException e) {
+                    log.error("Не удалось вернуть место события {} после отката транзакции", eventId, e);
+                }
+            }
+        });
+    }
+
+    private boolean isExhausted(Long eventId) {
+        Long until = exhaustedUntil.get(eventId);
+        if (until == null) {
+            return false;
+        }
+        if (until > System.currentTimeMillis()) {
+            return true;
+        }
+        exhaustedUntil.remove(eventId, until);
+        return false;
+    }
+
+    private void combine(Long eventId, EventPermits eventPermits) {
+        while (!eventPermits.waiters.isEmpty() && eventPermits.combining.compareAndSet(false, true)) {
+            try {
+                List<CompletableFuture<Boolean>> batch = new ArrayList<>();
+                CompletableFuture<Boolean> waiter;
+                while ((waiter = eventPermits.waiters.poll()) != null) {
+                    batch.add(waiter);
+                }
+                if (!batch.isEmpty()) {
+                    grant(eventId, batch);
+                }
+            } finally {
+                eventPermits.combining.set(false);
+            }
+        }
+        if (eventPermits.waiters.isEmpty()) {
+            permits.remove(eventId, eventPermits);
+        }
+    }
+
+    private void grant(Long eventId, List<CompletableFuture<Boolean>> batch) {
+        int granted = 0;
+        try {
+            int wanted = batch.size();
+            while (wanted > 0 && !eventClient.changeConfirmedRequests(eventId, wanted)) {
+                EventFullDto event = eventClient.getEvent(eventId);
+                wanted = (int) Math.min(wanted, Math.max(0, event.getParticipantLimit() - event.getConfirmedRequests()));
+            }
+            granted = wanted;
+            if (granted < batch.size()) {
+                log.info("Лимит участников события {} исчерпан, отклонено заявок: {}", eventId, batch.size() - granted);
+                exhaustedUntil.put(eventId, System.currentTimeMillis() + reseedMillis);
+            }
+        } catch (RuntimeException e) {
+            batch.subList(granted, batch.size()).forEach(w -> w.completeExceptionally(e));
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).complete(i < granted);
+        }
+    }
+
+    private boolean join(CompletableFuture<Boolean> waiter) {
+        try {
+            return waiter.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static class EventPermits {
+        final Queue<CompletableFuture<Boolean>> waiters = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean combining = new AtomicBoolean();
+    }
+}
@@ -1,5 +1,6 @@
 package ru.practicum.service;
 
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.dto.request.EventRequestStatusUpdateRequest;
 import ru.practicum.dto.request.EventRequestStatusUpdateResult;
 import ru.practicum.dto.request.ParticipationRequestDto;
@@ -10,6 +11,8 @@ public interface RequestService {
     // Методы для работы с запросами на участие
     List<ParticipationRequestDto> getUserRequests(Long userId);
 
+    List<ParticipationRequestDto> getUserRequests(Long userId, Integer from, Long afterId, Integer size);
+
     ParticipationRequestDto createRequest(Long userId, Long eventId);
 
     ParticipationRequestDto cancelRequest(Long userId, Long requestId);
@@ -17,5 +20,9 @@ public interface RequestService {
     // Методы для организатора события
     List<ParticipationRequestDto> getEventParticipants(Long userId, Long eventId);
 
+    List<ParticipationRequestDto> getEventParticipants(Long userId, Long eventId, Integer from, Long afterId, Integer size);
+
+    StreamingResponseBody exportEventParticipants(Long userId, Long eventId);
+
     EventRequestStatusUpdateResult updateRequestStatus(Long userId, Long eventId, EventRequestStatusUpdateRequest updateRequest);
 }
\ No newline at end of file
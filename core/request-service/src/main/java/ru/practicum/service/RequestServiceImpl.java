@@ -1,9 +1,19 @@
 package ru.practicum.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.UserActionClient;
 import ru.practicum.dto.event.EventFullDto;
 import ru.practicum.dto.event.State;
@@ -11,27 +21,37 @@ import ru.practicum.dto.request.*;
 import ru.practicum.dto.user.UserDto;
 import ru.practicum.exception.ConflictException;
 import ru.practicum.exception.NotFoundException;
-import ru.practicum.feign.EventClient;
-import ru.practicum.feign.UserClient;
+import ru.practicum.feign.EventSnapshotClient;
 import ru.practicum.grpc.stats.action.ActionTypeProto;
+import ru.practicum.internal.EventInternalClient;
+import ru.practicum.internal.UserInternalClient;
 import ru.practicum.mapper.RequestMapper;
 import ru.practicum.model.Request;
 import ru.practicum.repository.RequestRepository;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class RequestServiceImpl implements RequestService {
     private final RequestRepository requestRepository;
-    private final UserClient userClient;
-    private final EventClient eventClient;
+    private final UserInternalClient userClient;
+    private final EventInternalClient eventClient;
+    private final EventSnapshotClient eventSnapshotClient;
+    private final RegistrationAdmission registrationAdmission;
     private final RequestMapper requestMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
     final UserActionClient userActionClient;
 
     @Override
@@ -43,12 +63,26 @@ public class RequestServiceImpl implements RequestService {
         return requestMapper.toParticipationRequestDtoList(requests);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ParticipationRequestDto> getUserRequests(Long userId, Integer from, Long afterId, Integer size) {
+        if (size == null) {
+            return getUserRequests(userId);
+        }
+        UserDto user = userClient.getUserById(userId);
+
+        List<Request> requests = requestRepository.findAllByRequesterIdAndIdGreaterThan(user.getId(),
+                afterId == null ? 0L : afterId, page(from, afterId, size));
+        return requestMapper.toParticipationRequestDtoList(requests);
+    }
+
     @Override
     @Transactional
     public ParticipationRequestDto createRequest(Long userId, Long eventId) {
         UserDto user = userClient.getUserById(userId);
 
-        EventFullDto event = eventClient.getEventByIdFeign(eventId);
+        // Снимка достаточно для предварительных проверок: лимит окончательно проверяется атомарно в event-service
+        EventFullDto event = eventSnapshotClient.getEvent(eventId);
 
         // Проверка: нельзя добавить повторный запрос
         if (requestRepository.existsByEventIdAndRequesterIdAndStatusNot(event.getId(), user.getId(), RequestStatus.CANCELED)) {
@@ -78,17 +112,16 @@ public class RequestServiceImpl implements RequestService {
 
         // Если для события отключена пре-модерация или лимит участников равен 0,
         // то запрос автоматически подтверждается
-        if (!event.getRequestModeration() || event.getParticipantLimit() == 0) {
-            request.setStatus(RequestStatus.CONFIRMED);
-
-            // Увеличиваем счетчик подтвержденных заявок в событии
-            event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-            eventClient.updateEventForRequests(event.getId(), event);
-        } else {
-            request.setStatus(RequestStatus.PENDING);
-        }
+        boolean autoConfirm = !event.getRequestModeration() || event.getParticipantLimit() == 0;
+        request.setStatus(autoConfirm ? RequestStatus.CONFIRMED : RequestStatus.PENDING);
 
         request = requestRepository.save(request);
+
+        if (autoConfirm) {
+            // Увеличиваем счетчик подтвержденных заявок в событии; при неудаче транзакция откатывает сохранённый запрос,
+            // а при откате после резервирования место возвращается самим RegistrationAdmission
+            registrationAdmission.admit(event.getId());
+        }
         userActionClient.collectUserAction(userId, eventId, ActionTypeProto.ACTION_REGISTER, Instant.now());
         return requestMapper.toParticipationRequestDto(request);
     }
@@ -106,11 +139,9 @@ public class RequestServiceImpl implements RequestService {
             throw new ConflictException("Запрос с id=" + requestId + " не принадлежит пользователю с id=" + userId);
         }
 
-        // Если запрос был подтвержден, уменьшаем счетчик подтвержденных заявок в событии
+        // Если запрос был подтвержден, уменьшаем счетчик подтвержденных заявок в событии после фиксации отмены
         if (request.getStatus() == RequestStatus.CONFIRMED) {
-            EventFullDto event = eventClient.getEventByIdFeign(request.getEventId());
-            event.setConfirmedRequests(event.getConfirmedRequests() - 1);
-            eventClient.updateEventForRequests(event.getId(), event);
+            releaseAfterCommit(request.getEventId());
         }
 
         request.setStatus(RequestStatus.CANCELED);
@@ -124,7 +155,7 @@ public class RequestServiceImpl implements RequestService {
     public List<ParticipationRequestDto> getEventParticipants(Long userId, Long eventId) {
         UserDto user = userClient.getUserById(userId);
 
-        EventFullDto event = eventClient.getEventByIdFeign(eventId);
+        EventFullDto event = eventSnapshotClient.getEvent(eventId);
 
         if (!Objects.equals(event.getInitiator().getId(), userId)) {
             throw new ConflictException("Событие с id=" + eventId + " не принадлежит пользователю с id=" + userId);
@@ -134,12 +165,48 @@ public class RequestServiceImpl implements RequestService {
         return requestMapper.toParticipationRequestDtoList(requests);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<ParticipationRequestDto> getEventParticipants(Long userId, Long eventId,
+                                                              Integer from, Long afterId, Integer size) {
+        if (size == null) {
+            return getEventParticipants(userId, eventId);
+        }
+        checkEventInitiator(userId, eventId);
+
+        List<Request> requests = requestRepository.findAllByEventIdAndIdGreaterThan(eventId,
+                afterId == null ? 0L : afterId, page(from, afterId, size));
+        return requestMapper.toParticipationRequestDtoList(requests);
+    }
+
+    @Override
+    public StreamingResponseBody exportEventParticipants(Long userId, Long eventId) {
+        checkEventInitiator(userId, eventId);
+
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return out -> transactionTemplate.executeWithoutResult(status -> {
+            // Заявки читаются курсором и сразу отсоединяются, чтобы контекст персистентности не рос вместе с выгрузкой
+            try (Stream<Request> requests = requestRepository.streamAllByEventId(eventId)) {
+                requests.forEach(request -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(requestMapper.toParticipationRequestDto(request)));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    entityManager.detach(request);
+                });
+            }
+        });
+    }
+
     @Override
     @Transactional
     public EventRequestStatusUpdateResult updateRequestStatus(Long userId, Long eventId, EventRequestStatusUpdateRequest updateRequest) {
         UserDto user = userClient.getUserById(userId);
 
-        EventFullDto event = eventClient.getEventByIdFeign(eventId);
+        EventFullDto event = eventClient.getEvent(eventId);
 
         if (!Objects.equals(event.getInitiator().getId(), userId)) {
             throw new ConflictException("Событие с id=" + eventId + " не принадлежит пользователю с id=" + userId);
@@ -156,7 +223,8 @@ public class RequestServiceImpl implements RequestService {
             throw new ConflictException("Достигнут лимит по заявкам на данное событие");
         }
 
-        List<Request> requests = requestRepository.findAllByEventIdAndIdIn(event.getId(), updateRequest.getRequestIds());
+        List<ParticipationRequestDto> requests =
+                requestRepository.findDtosByEventIdAndIdIn(event.getId(), updateRequest.getRequestIds());
 
         // Проверка: все запросы должны существовать
         if (requests.size() != updateRequest.getRequestIds().size()) {
@@ -164,48 +232,115 @@ public class RequestServiceImpl implements RequestService {
         }
 
         // Проверка: статус можно изменить только у заявок, находящихся в состоянии ожидания
-        for (Request request : requests) {
+        for (ParticipationRequestDto request : requests) {
             if (request.getStatus() != RequestStatus.PENDING) {
                 throw new ConflictException("Статус можно изменить только у заявок, находящихся в состоянии ожидания");
             }
         }
 
-        List<Request> confirmedRequests = new ArrayList<>();
-        List<Request> rejectedRequests = new ArrayList<>();
-
-        // Обработка запросов
-        for (Request request : requests) {
-            if (updateRequest.getStatus() == Status.CONFIRMED) {
-                // Проверка: достигнут ли лимит заявок
-                if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
-                    request.setStatus(RequestStatus.REJECTED);
-                    rejectedRequests.add(request);
-                } else {
-                    request.setStatus(RequestStatus.CONFIRMED);
-                    event.setConfirmedRequests(event.getConfirmedRequests() + 1);
-                    confirmedRequests.add(request);
-                }
-            } else {
-                request.setStatus(RequestStatus.REJECTED);
-                rejectedRequests.add(request);
+        // Резервируем места одним атомарным изменением счётчика; если его опередили конкурентные заявки,
+        // перечитываем событие и пробуем зарезервировать оставшееся количество
+        int toConfirm = 0;
+        if (updateRequest.getStatus() == Status.CONFIRMED) {
+            toConfirm = Math.min(requests.size(), availableSlots(event));
+            while (toConfirm > 0 && !eventClient.changeConfirmedRequests(event.getId(), toConfirm)) {
+                event = eventClient.getEvent(eventId);
+                toConfirm = Math.min(toConfirm, availableSlots(event));
+            }
+            event.setConfirmedRequests(event.getConfirmedRequests() + toConfirm);
+            eventSnapshotClient.evict(event.getId());
+            if (toConfirm > 0) {
+                compensateOnRollback(event.getId(), toConfirm);
             }
         }
 
-        // Сохранение изменений
-        requestRepository.saveAll(requests);
-        eventClient.updateEventForRequests(event.getId(), event);
+        List<ParticipationRequestDto> confirmedRequests = new ArrayList<>(requests.subList(0, toConfirm));
+        List<ParticipationRequestDto> rejectedRequests = new ArrayList<>(requests.subList(toConfirm, requests.size()));
+
+        // Сохранение изменений двумя UPDATE по множеству id вместо построчного сохранения
+        int updated = updateStatus(event.getId(), confirmedRequests, RequestStatus.CONFIRMED)
+                + updateStatus(event.getId(), rejectedRequests, RequestStatus.REJECTED);
+        if (updated != requests.size()) {
+            // Заявки успели изменить параллельно: транзакция откатится, а зарезервированные места вернёт компенсация
+            throw new ConflictException("Статус можно изменить только у заявок, находящихся в состоянии ожидания");
+        }
 
         // Если при подтверждении заявок лимит исчерпан, отклоняем все остальные заявки в ожидании
         if (event.getConfirmedRequests() >= event.getParticipantLimit()) {
-            List<Request> pendingRequests = requestRepository.findAllByEventIdAndStatus(event.getId(), RequestStatus.PENDING);
-            pendingRequests.forEach(r -> r.setStatus(RequestStatus.REJECTED));
-            requestRepository.saveAll(pendingRequests);
-            rejectedRequests.addAll(pendingRequests);
+            Long id = event.getId();
+            requestRepository.rejectAllPending(id).stream()
+                    .sorted(Comparator.comparing(RequestRepository.RejectedRequest::getId))
+                    .map(r -> new ParticipationRequestDto(r.getId(), id, r.getRequesterId(), RequestStatus.REJECTED,
+                            r.getCreated()))
+                    .forEach(rejectedRequests::add);
         }
 
         return EventRequestStatusUpdateResult.builder()
-                .confirmedRequests(requestMapper.toParticipationRequestDtoList(confirmedRequests))
-                .rejectedRequests(requestMapper.toParticipationRequestDtoList(rejectedRequests))
+                .confirmedRequests(confirmedRequests)
+                .rejectedRequests(rejectedRequests)
                 .build();
     }
-}
\ No newline at end of file
+
+    private int updateStatus(Long eventId, List<ParticipationRequestDto> requests, RequestStatus status) {
+        if (requests.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = requests.stream().map(ParticipationRequestDto::getId).toList();
+        requests.forEach(r -> r.setStatus(status));
+        return requestRepository.updateStatusByEventIdAndIdIn(eventId, ids, RequestStatus.PENDING, status);
+    }
+
+    /**
+     * Счётчик подтверждённых заявок меняется в event-service вне локальной транзакции,
+     * поэтому при её откате изменение возвращается обратным.
+     */
+    private void compensateOnRollback(Long eventId, int delta) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    eventClient.changeConfirmedRequests(eventId, -delta);
+                    eventSnapshotClient.evict(eventId);
+                } catch (RuntimeException e) {
+                    log.error("Не удалось вернуть {} мест события {} после отката транзакции", delta, eventId, e);
+                }
+            }
+        });
+    }
+
+    private void releaseAfterCommit(Long eventId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    registrationAdmission.release(eventId);
+                } catch (RuntimeException e) {
+                    log.error("Не удалось освободить место события {} после отмены заявки", eventId, e);
+                }
+            }
+        });
+    }
+
+    private void checkEventInitiator(Long userId, Long eventId) {
+        userClient.getUserById(userId);
+
+        EventFullDto event = eventSnapshotClient.getEvent(eventId);
+
+        if (!Objects.equals(event.getInitiator().getId(), userId)) {
+            throw new ConflictException("Событие с id=" + eventId + " не принадлежит пользователю с id=" + userId);
+        }
+    }
+
+    private Pageable page(Integer from, Long afterId, Integer size) {
+        // При переданном курсоре afterId смещение не используется
+        int offset = afterId != null || from == null ? 0 : from;
+        return PageRequest.of(offset / size, size, Sort.by("id"));
+    }
+
+    private int availableSlots(EventFullDto event) {
+        return (int) Math.max(0, event.getParticipantLimit() - event.getConfirmedRequests());
+    }
+}
@@ -0,0 +1,211 @@
+package ru.practicum.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import ru.practicum.dto.request.RequestStatus;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Регрессия планов запросов RequestRepository: на большом наборе заявок ни один метод репозитория
+ * не должен читать таблицу requests последовательным сканированием.
+ * SQL каждого метода перехватывается у Hibernate и проверяется через EXPLAIN (GENERIC_PLAN),
+ * поэтому план строится для того же запроса, что выполняет приложение, без подстановки значений параметров.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "ru.practicum.repository.RequestRepositoryExplainTest$CapturingInspector")
+@Testcontainers
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RequestRepositoryExplainTest {
+    static final int REQUESTS = 200_000;
+    static final int EVENTS = 2_000;
+    static final int REQUESTERS = 20_000;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16.1");
+
+    @Autowired
+    RequestRepository requestRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    DataSource dataSource;
+
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void seed() {
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        if (jdbcTemplate.queryForObject("SELECT count(*) FROM requests", Long.class) > 0) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO requests (created, event_id, requester_id, status) " +
+                "SELECT now() - n * INTERVAL '1 second', n % ? + 1, n % ? + 1, " +
+                "(ARRAY['PENDING', 'CONFIRMED', 'REJECTED', 'CANCELED'])[n % 4 + 1] " +
+                "FROM generate_series(1, ?) AS n", EVENTS, REQUESTERS, REQUESTS);
+        jdbcTemplate.execute("ANALYZE requests");
+    }
+
+    @Test
+    void existsByEventIdAndRequesterIdAndStatusNot() {
+        assertNoSequentialScan(repository ->
+                repository.existsByEventIdAndRequesterIdAndStatusNot(1L, 1L, RequestStatus.CANCELED));
+    }
+
+    @Test
+    void findAllByRequesterId() {
+        assertNoSequentialScan(repository -> repository.findAllByRequesterId(1L));
+    }
+
+    @Test
+    void findAllByEventId() {
+        assertNoSequentialScan(repository -> repository.findAllByEventId(1L));
+    }
+
+    @Test
+    void findAllByRequesterIdAndIdGreaterThan() {
+        assertNoSequentialScan(repository ->
+                repository.findAllByRequesterIdAndIdGreaterThan(1L, 0L, PageRequest.of(0, 20, Sort.by("id"))));
+    }
+
+    @Test
+    void findAllByEventIdAndIdGreaterThan() {
+        assertNoSequentialScan(repository ->
+                repository.findAllByEventIdAndIdGreaterThan(1L, 0L, PageRequest.of(0, 20, Sort.by("id"))));
+    }
+
+    @Test
+    void streamAllByEventId() {
+        assertNoSequentialScan(repository -> {
+            try (Stream<?> requests = repository.streamAllByEventId(1L)) {
+                requests.count();
+            }
+        });
+    }
+
+    @Test
+    void findAllByEventIdAndStatus() {
+        assertNoSequentialScan(repository -> repository.findAllByEventIdAndStatus(1L, RequestStatus.PENDING));
+    }
+
+    @Test
+    void findAllByEventIdAndIdIn() {
+        assertNoSequentialScan(repository -> repository.findAllByEventIdAndIdIn(1L, List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void findDtosByEventIdAndIdIn() {
+        assertNoSequentialScan(repository -> repository.findDtosByEventIdAndIdIn(1L, List.of(1L, 2L, 3L)));
+    }
+
+    @Test
+    void updateStatusByEventIdAndIdIn() {
+        assertNoSequentialScan(repository -> repository.updateStatusByEventIdAndIdIn(1L, List.of(1L, 2L, 3L),
+                RequestStatus.PENDING, RequestStatus.CONFIRMED));
+    }
+
+    @Test
+    void rejectAllPending() {
+        assertNoSequentialScan(repository -> repository.rejectAllPending(1L));
+    }
+
+    private void assertNoSequentialScan(Consumer<RequestRepository> method) {
+        CapturingInspector.start();
+        try {
+            // Изменяющие методы выполняются в откатываемой транзакции, чтобы не трогать общий набор данных
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                method.accept(requestRepository);
+                status.setRollbackOnly();
+            });
+        } finally {
+            CapturingInspector.stop();
+        }
+
+        List<String> statements = CapturingInspector.statements();
+        assertFalse(statements.isEmpty(), "Метод репозитория не выполнил ни одного запроса");
+        for (String sql : statements) {
+            String plan = String.join("\n",
+                    jdbcTemplate.queryForList("EXPLAIN (GENERIC_PLAN) " + numberParameters(sql), String.class));
+            assertFalse(plan.contains("Seq Scan on requests"), "Последовательное сканирование requests:\n"
+                    + sql + "\n" + plan);
+        }
+    }
+
+    /**
+     * EXPLAIN (GENERIC_PLAN) принимает параметры только в виде $1, $2, ...
+     */
+    private static String numberParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+        static final List<String> CAPTURED = new ArrayList<>();
+        static volatile boolean capturing;
+
+        static synchronized void start() {
+            CAPTURED.clear();
+            capturing = true;
+        }
+
+        static void stop() {
+            capturing = false;
+        }
+
+        static synchronized List<String> statements() {
+            return List.copyOf(CAPTURED);
+        }
+
+        @Override
+        public String inspect(String sql) {
+            if (capturing && sql.toLowerCase().contains("requests")) {
+                synchronized (CapturingInspector.class) {
+                    CAPTURED.add(sql);
+                }
+            }
+            return sql;
+        }
+    }
+
+    @SpringBootConfiguration
+    @EntityScan("ru.practicum")
+    @EnableJpaRepositories("ru.practicum")
+    static class TestConfig {
+    }
+}
@@ -0,0 +1,159 @@
+package ru.practicum.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.dto.event.EventFullDto;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.feign.EventSnapshotClient;
+import ru.practicum.internal.EventInternalClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Нагрузочная проверка допуска заявок: множество потоков одновременно регистрируются на событие с лимитом,
+ * счётчик event-service моделируется атомарным условным изменением, как в EventRepository.changeConfirmedRequests.
+ */
+class RegistrationAdmissionLoadTest {
+    static final int THREADS = 64;
+    static final long EVENT_ID = 1L;
+
+    final AtomicInteger confirmed = new AtomicInteger();
+    final AtomicInteger remoteCalls = new AtomicInteger();
+    int limit;
+    RegistrationAdmission admission;
+
+    @BeforeEach
+    void setUp() {
+        EventInternalClient eventClient = mock(EventInternalClient.class);
+        when(eventClient.changeConfirmedRequests(anyLong(), anyInt())).thenAnswer(invocation -> {
+            remoteCalls.incrementAndGet();
+            int delta = invocation.getArgument(1);
+            while (true) {
+                int current = confirmed.get();
+                int next = current + delta;
+                if (next < 0 || next > limit) {
+                    return false;
+                }
+                if (confirmed.compareAndSet(current, next)) {
+                    return true;
+                }
+            }
+        });
+        when(eventClient.getEvent(anyLong())).thenAnswer(invocation -> EventFullDto.builder()
+                .id(EVENT_ID)
+                .participantLimit(limit)
+                .confirmedRequests((long) confirmed.get())
+                .build());
+        admission = new RegistrationAdmission(eventClient, mock(EventSnapshotClient.class), true, 60_000);
+    }
+
+    @Test
+    void concurrentRegistrationsNeverExceedParticipantLimit() throws Exception {
+        limit = 100;
+
+        AtomicInteger admitted = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        int attempts = 5_000;
+        runConcurrently(attempts, attempt -> {
+            try {
+                admission.admit(EVENT_ID);
+                admitted.incrementAndGet();
+            } catch (ConflictException e) {
+                rejected.incrementAndGet();
+            }
+        });
+
+        assertEquals(limit, admitted.get());
+        assertEquals(attempts - limit, rejected.get());
+        assertEquals(limit, confirmed.get());
+        // Отметка исчерпания отсекает заявки без обращения к event-service
+        assertTrue(remoteCalls.get() < attempts, "Обращений к event-service: " + remoteCalls.get());
+    }
+
+    @Test
+    void rolledBackRegistrationsReturnTheirPermits() throws Exception {
+        limit = 1_000;
+
+        // Каждая третья транзакция откатывается после допуска, в том числе когда место резервировал другой поток
+        AtomicInteger committed = new AtomicInteger();
+        runConcurrently(900, attempt -> {
+            TransactionSynchronizationManager.initSynchronization();
+            try {
+                admission.admit(EVENT_ID);
+                int status = attempt % 3 == 0
+                        ? TransactionSynchronization.STATUS_ROLLED_BACK
+                        : TransactionSynchronization.STATUS_COMMITTED;
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    committed.incrementAndGet();
+                }
+                TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(status));
+            } finally {
+                TransactionSynchronizationManager.clearSynchronization();
+            }
+        });
+
+        assertEquals(600, committed.get());
+        assertEquals(committed.get(), confirmed.get());
+    }
+
+    @Test
+    void releasedPermitIsAvailableDespiteExhaustionMark() throws Exception {
+        limit = 10;
+
+        runConcurrently(50, attempt -> {
+            try {
+                admission.admit(EVENT_ID);
+            } catch (ConflictException e) {
+                // Ожидаемо для заявок сверх лимита
+            }
+        });
+        assertEquals(limit, confirmed.get());
+
+        admission.release(EVENT_ID);
+        admission.admit(EVENT_ID);
+
+        assertEquals(limit, confirmed.get());
+    }
+
+    private void runConcurrently(int attempts, Attempt attempt) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(attempts);
+            for (int i = 0; i < attempts; i++) {
+                int number = i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    attempt.run(number);
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface Attempt {
+        void run(int attempt) throws Exception;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.controller;
+
+import io.grpc.stub.StreamObserver;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import net.devh.boot.grpc.server.service.GrpcService;
+import ru.practicum.grpc.core.user.UserIdRequest;
+import ru.practicum.grpc.core.user.UserInternalControllerGrpc;
+import ru.practicum.grpc.core.user.UserProto;
+import ru.practicum.internal.InternalApiMapper;
+import ru.practicum.service.UserService;
+
+@GrpcService
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserInternalGrpcController extends UserInternalControllerGrpc.UserInternalControllerImplBase {
+    final UserService userService;
+
+    @Override
+    public void getUser(UserIdRequest request, StreamObserver<UserProto> responseObserver) {
+        try {
+            responseObserver.onNext(InternalApiMapper.toProto(userService.getUserById(request.getUserId())));
+            responseObserver.onCompleted();
+        } catch (Exception e) {
+            responseObserver.onError(InternalApiMapper.toStatus(e));
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.practicum.cache;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Кэширует успешные ответы публичных GET-запросов маршрута на заданное время.
+ * Ключ — маршрут, путь и отсортированные параметры запроса. Параллельные промахи по одному ключу
+ * ждут ответа единственного запроса к сервису. Запросы с заголовком X-EWM-USER-ID не кэшируются.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+    private static final String USER_HEADER = "X-EWM-USER-ID";
+    private static final List<String> SKIPPED_HEADERS = List.of(HttpHeaders.CONTENT_LENGTH,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION, HttpHeaders.DATE, HttpHeaders.SET_COOKIE);
+
+    private final ResponseCacheStore store;
+    private final Map<String, Sinks.One<ResponseCacheStore.CachedResponse>> inflight = new ConcurrentHashMap<>();
+
+    public ResponseCacheGatewayFilterFactory(ResponseCacheStore store) {
+        super(Config.class);
+        this.store = store;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("ttl");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> {
+            if (exchange.getRequest().getMethod() != HttpMethod.GET
+                    || exchange.getRequest().getHeaders().containsKey(USER_HEADER)) {
+                return chain.filter(exchange);
+            }
+
+            String key = key(exchange);
+            ResponseCacheStore.CachedResponse cached = store.get(key);
+            if (cached != null) {
+                return write(exchange, cached, "HIT");
+            }
+
+            Sinks.One<ResponseCacheStore.CachedResponse> sink = Sinks.one();
+            Sinks.One<ResponseCacheStore.CachedResponse> leader = inflight.putIfAbsent(key, sink);
+            if (leader != null) {
+                // Ответ уже запрошен другим запросом: ждём его, а при неудаче идём в сервис сами
+                return leader.asMono()
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(response -> response.isPresent()
+                                ? write(exchange, response.get(), "COALESCED")
+                                : chain.filter(exchange));
+            }
+
+            return chain.filter(exchange.mutate().response(capture(exchange, key, config, sink)).build())
+                    .doFinally(signal -> {
+                        inflight.remove(key, sink);
+                        sink.tryEmitEmpty();
+                    });
+        };
+    }
+
+    private ServerHttpResponse capture(ServerWebExchange exchange, String key, Config config,
+                                       Sinks.One<ResponseCacheStore.CachedResponse> sink) {
+        return new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                if (getStatusCode() == null || getStatusCode().value() != HttpStatus.OK.value()) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body))
+                        .flatMap(buffer -> {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            DataBufferUtils.release(buffer);
+
+                            HttpHeaders headers = new HttpHeaders();
+                            getHeaders().forEach((name, values) -> {
+                                if (SKIPPED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+                                    headers.put(name, values);
+                                }
+                            });
+                            ResponseCacheStore.CachedResponse response = new ResponseCacheStore.CachedResponse(
+                                    getStatusCode(), headers, bytes,
+                                    System.currentTimeMillis() + config.getTtl().toMillis());
+                            store.put(key, response);
+                            sink.tryEmitValue(response);
+                            log.debug("Ответ {} закэширован на {}", key, config.getTtl());
+
+                            getHeaders().set("X-Cache", "MISS");
+                            return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                        });
+            }
+        };
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, ResponseCacheStore.CachedResponse cached, String state) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(cached.status());
+        response.getHeaders().putAll(cached.headers());
+        response.getHeaders().set("X-Cache", state);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private String key(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        MultiValueMap<String, String> params = exchange.getRequest().getQueryParams();
+        String query = params.keySet().stream()
+                .sorted()
+                .map(name -> name + "=" + params.get(name).stream().sorted().collect(Collectors.joining(",")))
+                .collect(Collectors.joining("&"));
+        return (route == null ? "" : route.getId()) + ":" + exchange.getRequest().getPath().value() + "?" + query;
+    }
+
+    public static class Config {
+        private Duration ttl = Duration.ofSeconds(10);
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.cache;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Хранилище закэшированных ответов с ограничением по суммарному размеру тел и вытеснением давно не читавшихся записей.
+ */
+@Component
+public class ResponseCacheStore {
+    private final long maxBytes;
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long bytes;
+
+    public ResponseCacheStore(@Value("${gateway.response-cache.max-bytes:16777216}") long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized CachedResponse get(String key) {
+        CachedResponse response = entries.get(key);
+        if (response == null) {
+            return null;
+        }
+        if (response.expiresAt() <= System.currentTimeMillis()) {
+            remove(key);
+            return null;
+        }
+        return response;
+    }
+
+    public synchronized void put(String key, CachedResponse response) {
+        if (response.body().length > maxBytes) {
+            return;
+        }
+        remove(key);
+        entries.put(key, response);
+        bytes += response.body().length;
+        Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+        while (bytes > maxBytes && eldest.hasNext()) {
+            bytes -= eldest.next().getValue().body().length;
+            eldest.remove();
+        }
+    }
+
+    private void remove(String key) {
+        CachedResponse previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= previous.body().length;
+        }
+    }
+
+    public record CachedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body, long expiresAt) {
+    }
+}
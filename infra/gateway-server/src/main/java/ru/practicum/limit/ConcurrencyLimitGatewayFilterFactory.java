@@ -0,0 +1,136 @@
+package ru.practicum.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tag;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничивает число одновременно обрабатываемых запросов маршрута, а также каждого пользователя
+ * и каждого адреса клиента по всем маршрутам.
+ * Сверх лимита запрос сразу отклоняется с 429, не дожидаясь насыщения пулов потоков сервисов.
+ * Счётчики клиентов удаляются, как только у клиента не остаётся запросов в обработке.
+ */
+@Component
+public class ConcurrencyLimitGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ConcurrencyLimitGatewayFilterFactory.Config> {
+    private final MeterRegistry meterRegistry;
+    private final KeyResolver keyResolver;
+    private final Map<String, AtomicInteger> inflight = new ConcurrentHashMap<>();
+    private final Map<String, Integer> clientInflight = new ConcurrentHashMap<>();
+
+    public ConcurrencyLimitGatewayFilterFactory(MeterRegistry meterRegistry,
+                                                @Qualifier("userKeyResolver") KeyResolver keyResolver) {
+        super(Config.class);
+        this.meterRegistry = meterRegistry;
+        this.keyResolver = keyResolver;
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("maxConcurrent");
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        return (exchange, chain) -> keyResolver.resolve(exchange)
+                .defaultIfEmpty(RateLimitConfig.ADDRESS_PREFIX + "unknown")
+                .flatMap(key -> {
+                    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+                    String routeId = route == null ? "unknown" : route.getId();
+                    AtomicInteger counter = inflight.computeIfAbsent(routeId, id -> {
+                        AtomicInteger value = new AtomicInteger();
+                        meterRegistry.gauge("gateway.requests.inflight", List.of(Tag.of("route", id)), value);
+                        return value;
+                    });
+
+                    if (counter.incrementAndGet() > config.getMaxConcurrent()) {
+                        counter.decrementAndGet();
+                        return reject(exchange, routeId, "concurrency");
+                    }
+                    List<String> acquired = new ArrayList<>(2);
+                    for (String part : RateLimitConfig.keyParts(key)) {
+                        int limit = RateLimitConfig.isAddress(part)
+                                ? config.getMaxConcurrentPerAddress()
+                                : config.getMaxConcurrentPerUser();
+                        if (!tryAcquire(part, limit)) {
+                            acquired.forEach(this::release);
+                            counter.decrementAndGet();
+                            return reject(exchange, routeId, "client-concurrency");
+                        }
+                        acquired.add(part);
+                    }
+                    return chain.filter(exchange).doFinally(signal -> {
+                        acquired.forEach(this::release);
+                        counter.decrementAndGet();
+                    });
+                });
+    }
+
+    private boolean tryAcquire(String client, int limit) {
+        boolean[] acquired = {false};
+        clientInflight.compute(client, (key, count) -> {
+            int current = count == null ? 0 : count;
+            if (current >= limit) {
+                return count;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void release(String client) {
+        clientInflight.computeIfPresent(client, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId, String reason) {
+        meterRegistry.counter("gateway.requests.rejected", "route", routeId, "reason", reason).increment();
+        exchange.getResponse().setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        return exchange.getResponse().setComplete();
+    }
+
+    public static class Config {
+        private int maxConcurrent = 200;
+        private int maxConcurrentPerUser = 20;
+        private int maxConcurrentPerAddress = 50;
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public int getMaxConcurrentPerUser() {
+            return maxConcurrentPerUser;
+        }
+
+        public void setMaxConcurrentPerUser(int maxConcurrentPerUser) {
+            this.maxConcurrentPerUser = maxConcurrentPerUser;
+        }
+
+        public int getMaxConcurrentPerAddress() {
+            return maxConcurrentPerAddress;
+        }
+
+        public void setMaxConcurrentPerAddress(int maxConcurrentPerAddress) {
+            this.maxConcurrentPerAddress = maxConcurrentPerAddress;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package ru.practicum.limit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.Min;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.route.RouteDefinitionRouteLocator;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ограничитель частоты запросов "token bucket" с состоянием в памяти шлюза, без Redis.
+ * Корзины заводятся на маршрут отдельно для адреса клиента и для пользователя; запрос проходит,
+ * только если токен нашёлся в каждой из них.
+ * Заполненные корзины удаляются фоновой очисткой. Пока таблица корзин заполнена, новые ключи делят общую
+ * корзину маршрута, поэтому перебор ключей не увеличивает расход памяти.
+ */
+@Component(LocalRateLimiter.BEAN_NAME)
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+    public static final String BEAN_NAME = "localRateLimiter";
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+    private static final int MAX_BUCKETS = 100_000;
+    private static final long SWEEP_INTERVAL_SECONDS = 10;
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final Config defaultConfig = new Config();
+    private final ScheduledExecutorService sweeper =
+            Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "rate-limiter-sweeper"));
+
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("gateway.rate-limiter.buckets", List.of(), buckets);
+        sweeper.scheduleWithFixedDelay(this::sweep, SWEEP_INTERVAL_SECONDS, SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdown();
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId,
+                getConfig().getOrDefault(RouteDefinitionRouteLocator.DEFAULT_FILTERS, defaultConfig));
+        long now = System.nanoTime();
+        long remaining = Long.MAX_VALUE;
+        for (String part : RateLimitConfig.keyParts(id)) {
+            Bucket bucket = RateLimitConfig.isAddress(part)
+                    ? bucket(routeId, part, config.getAddressReplenishRate(), config.getAddressBurstCapacity())
+                    : bucket(routeId, part, config.getReplenishRate(), config.getBurstCapacity());
+            long left = bucket.tryConsume(now);
+            if (left < 0) {
+                meterRegistry.counter("gateway.requests.rejected", "route", routeId, "reason", "rate-limit").increment();
+                return Mono.just(new Response(false, Map.of("X-RateLimit-Remaining", "0")));
+            }
+            remaining = Math.min(remaining, left);
+        }
+        return Mono.just(new Response(true, Map.of("X-RateLimit-Remaining", String.valueOf(remaining))));
+    }
+
+    private Bucket bucket(String routeId, String keyPart, int replenishRate, int burstCapacity) {
+        String key = routeId + ":" + keyPart;
+        Bucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= MAX_BUCKETS) {
+            key = routeId + ":overflow";
+        }
+        return buckets.computeIfAbsent(key, k -> new Bucket(replenishRate, burstCapacity));
+    }
+
+    private void sweep() {
+        // Полные корзины эквивалентны отсутствующим, их можно выбросить без потери состояния
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    private static class Bucket {
+        private final double tokensPerNano;
+        private final int capacity;
+        private double tokens;
+        private long updatedAt;
+
+        Bucket(int replenishRate, int capacity) {
+            this.tokensPerNano = replenishRate / 1_000_000_000.0;
+            this.capacity = capacity;
+            this.tokens = capacity;
+            this.updatedAt = System.nanoTime();
+        }
+
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens < 1) {
+                return -1;
+            }
+            tokens -= 1;
+            return (long) tokens;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + Math.max(0, now - updatedAt) * tokensPerNano);
+            updatedAt = Math.max(updatedAt, now);
+        }
+    }
+
+    @Validated
+    public static class Config {
+        @Min(1)
+        private int replenishRate = 50;
+
+        @Min(1)
+        private int burstCapacity = 100;
+
+        // За одним адресом может быть несколько пользователей, поэтому лимит адреса выше лимита пользователя
+        @Min(1)
+        private int addressReplenishRate = 200;
+
+        @Min(1)
+        private int addressBurstCapacity = 400;
+
+        public int getReplenishRate() {
+            return replenishRate;
+        }
+
+        public Config setReplenishRate(int replenishRate) {
+            this.replenishRate = replenishRate;
+            return this;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public Config setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+            return this;
+        }
+
+        public int getAddressReplenishRate() {
+            return addressReplenishRate;
+        }
+
+        public Config setAddressReplenishRate(int addressReplenishRate) {
+            this.addressReplenishRate = addressReplenishRate;
+            return this;
+        }
+
+        public int getAddressBurstCapacity() {
+            return addressBurstCapacity;
+        }
+
+        public Config setAddressBurstCapacity(int addressBurstCapacity) {
+            this.addressBurstCapacity = addressBurstCapacity;
+            return this;
+        }
+    }
+}
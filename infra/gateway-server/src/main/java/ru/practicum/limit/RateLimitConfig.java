@@ -0,0 +1,48 @@
+package ru.practicum.limit;
+
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.publisher.Mono;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.Optional;
+
+@Configuration
+public class RateLimitConfig {
+    static final String ADDRESS_PREFIX = "ip:";
+    static final String USER_PREFIX = "user:";
+    static final String SEPARATOR = "|";
+    private static final String USER_HEADER = "X-EWM-USER-ID";
+
+    /**
+     * Ключ всегда содержит адрес клиента и, если передан, id пользователя.
+     * Заголовок пользователя задаёт сам клиент, поэтому лимиты по адресу действуют всегда:
+     * перебор значений заголовка не выводит клиента из-под ограничения.
+     */
+    @Bean
+    public KeyResolver userKeyResolver() {
+        return exchange -> {
+            String address = ADDRESS_PREFIX + Optional.ofNullable(exchange.getRequest().getRemoteAddress())
+                    .map(InetSocketAddress::getAddress)
+                    .map(InetAddress::getHostAddress)
+                    .orElse("unknown");
+            String userId = exchange.getRequest().getHeaders().getFirst(USER_HEADER);
+            if (userId != null && !userId.isBlank()) {
+                return Mono.just(address + SEPARATOR + USER_PREFIX + userId);
+            }
+            return Mono.just(address);
+        };
+    }
+
+    static List<String> keyParts(String key) {
+        int separator = key.indexOf(SEPARATOR);
+        return separator < 0 ? List.of(key) : List.of(key.substring(0, separator), key.substring(separator + 1));
+    }
+
+    static boolean isAddress(String keyPart) {
+        return keyPart.startsWith(ADDRESS_PREFIX);
+    }
+}
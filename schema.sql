@@ -32,6 +32,7 @@ CREATE TABLE IF NOT EXISTS events (
     initiator_id BIGINT NOT NULL,
     state VARCHAR(20) NOT NULL, --статус события (опубликован и тд)
     published_on TIMESTAMP, --дата публикации события
+    version BIGINT NOT NULL DEFAULT 0, --номер версии, увеличивается при каждом изменении
     CONSTRAINT fk_events_to_users FOREIGN KEY (initiator_id) REFERENCES users(id),
     CONSTRAINT fk_events_categories FOREIGN KEY (category_id) REFERENCES categories(id),
     CONSTRAINT fk_events_locations FOREIGN KEY (location_id) REFERENCES locations(id)
@@ -49,6 +50,11 @@ CREATE TABLE IF NOT EXISTS events_compilations (
     PRIMARY KEY (compilation_id, event_id)
 );
 
+CREATE TABLE IF NOT EXISTS catalogue_versions (
+    name VARCHAR(50) PRIMARY KEY,
+    version BIGINT NOT NULL --версия справочника для ETag, общая для всех экземпляров event-service
+);
+
 CREATE TABLE IF NOT EXISTS requests (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     event_id BIGINT NOT NULL,
@@ -59,6 +65,11 @@ CREATE TABLE IF NOT EXISTS requests (
     CONSTRAINT fk_requests_to_users FOREIGN KEY(requester_id) REFERENCES users(id)
 );
 
+CREATE INDEX IF NOT EXISTS ix_requests_event_status ON requests (event_id, status);
+CREATE INDEX IF NOT EXISTS ix_requests_event_requester_status ON requests (event_id, requester_id, status);
+CREATE INDEX IF NOT EXISTS ix_requests_event_id ON requests (event_id, id);
+CREATE INDEX IF NOT EXISTS ix_requests_requester_id ON requests (requester_id, id);
+
 CREATE TABLE IF NOT EXISTS comments (
     id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     text VARCHAR(2000) NOT NULL,
@@ -67,4 +78,12 @@ CREATE TABLE IF NOT EXISTS comments (
     created TIMESTAMP NOT NULL,
     CONSTRAINT fk_comments_to_users FOREIGN KEY (author_id) REFERENCES users(id),
     CONSTRAINT fk_comments_to_events FOREIGN KEY (event_id) REFERENCES events(id)
-)
\ No newline at end of file
+);
+
+CREATE TABLE IF NOT EXISTS comment_counters (
+    event_id BIGINT PRIMARY KEY,
+    comments_count BIGINT NOT NULL --число комментариев события, обновляется пакетно из comment-service
+);
+
+CREATE INDEX IF NOT EXISTS ix_comments_event_created ON comments (event_id, created, id);
+CREATE INDEX IF NOT EXISTS ix_comments_author_created ON comments (author_id, created, id);
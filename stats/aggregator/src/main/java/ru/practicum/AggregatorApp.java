@@ -7,9 +7,12 @@ import ru.practicum.service.AggregationStarter;
 
 @SpringBootApplication
 public class AggregatorApp {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws InterruptedException {
         ConfigurableApplicationContext context = SpringApplication.run(AggregatorApp.class, args);
         AggregationStarter aggregator = context.getBean(AggregationStarter.class);
-        aggregator.start();
+        boolean virtualThreads = context.getEnvironment()
+                .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        builder.name("AggregationThread").start(aggregator::start).join();
     }
 }
\ No newline at end of file
@@ -0,0 +1,128 @@
+package ru.practicum.handler;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Сравнение расчёта оценок кандидатов: прежний покандидатный путь (HashMap схожестей и Stream.collect(toMap)
+ * весов пользователя на каждого кандидата) против пакетного расчёта BatchScorer по примитивным массивам,
+ * скалярного и на Vector API. Векторное ядро доступно только при сборке с профилем vector,
+ * иначе vectorBatch совпадает со scalarBatch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class ScoringBenchmark {
+    static final int NEIGHBOURS = 20;
+    static final int VIEWED_EVENTS = 200;
+
+    @Param({"100", "1000", "10000"})
+    public int candidates;
+
+    Map<Long, Map<Long, Double>> neighboursByCandidate;
+    List<Action> userActions;
+    Map<Long, Double> userWeights;
+    BatchScorer scalarScorer;
+    BatchScorer vectorScorer;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        userActions = new ArrayList<>(VIEWED_EVENTS);
+        for (long eventId = 1; eventId <= VIEWED_EVENTS; eventId++) {
+            userActions.add(new Action(eventId, (random.nextInt(3) + 1) * 0.4));
+        }
+        userWeights = userActions.stream().collect(Collectors.toMap(Action::eventId, Action::weight));
+
+        neighboursByCandidate = new HashMap<>();
+        for (long candidate = 0; candidate < candidates; candidate++) {
+            Map<Long, Double> neighbours = new HashMap<>();
+            while (neighbours.size() < NEIGHBOURS) {
+                neighbours.put((long) random.nextInt(VIEWED_EVENTS) + 1, random.nextDouble());
+            }
+            neighboursByCandidate.put(VIEWED_EVENTS + candidate + 1, neighbours);
+        }
+        scalarScorer = new BatchScorer(false);
+        vectorScorer = new BatchScorer(true);
+    }
+
+    @Benchmark
+    public Map<Long, Double> perCandidate() {
+        Map<Long, Double> scores = new HashMap<>();
+        for (Map.Entry<Long, Map<Long, Double>> candidate : neighboursByCandidate.entrySet()) {
+            Map<Long, Double> viewed = candidate.getValue();
+            Map<Long, Double> weights = userActions.stream()
+                    .filter(action -> viewed.containsKey(action.eventId()))
+                    .collect(Collectors.toMap(Action::eventId, Action::weight));
+            double sumWeighted = 0.0;
+            double sumSim = 0.0;
+            for (Map.Entry<Long, Double> entry : viewed.entrySet()) {
+                Double weight = weights.get(entry.getKey());
+                if (weight != null) {
+                    sumWeighted += weight * entry.getValue();
+                    sumSim += entry.getValue();
+                }
+            }
+            scores.put(candidate.getKey(), sumSim > 0 ? sumWeighted / sumSim : 0.0);
+        }
+        return scores;
+    }
+
+    @Benchmark
+    public Map<Long, Double> scalarBatch() {
+        return batch(scalarScorer);
+    }
+
+    @Benchmark
+    public Map<Long, Double> vectorBatch() {
+        return batch(vectorScorer);
+    }
+
+    /**
+     * Как в RecommendationHandler: соседи раскладываются подряд в общие массивы, оценки считаются одним вызовом.
+     */
+    private Map<Long, Double> batch(BatchScorer scorer) {
+        Long[] ids = neighboursByCandidate.keySet().toArray(Long[]::new);
+        int[] offsets = new int[ids.length + 1];
+        double[] similarities = new double[ids.length * NEIGHBOURS];
+        double[] weights = new double[similarities.length];
+        int size = 0;
+        for (int i = 0; i < ids.length; i++) {
+            for (Map.Entry<Long, Double> neighbour : neighboursByCandidate.get(ids[i]).entrySet()) {
+                similarities[size] = neighbour.getValue();
+                weights[size] = userWeights.get(neighbour.getKey());
+                size++;
+            }
+            offsets[i + 1] = size;
+        }
+        double[] scores = scorer.score(similarities, weights, offsets);
+        Map<Long, Double> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            result.put(ids[i], scores[i]);
+        }
+        return result;
+    }
+
+    record Action(Long eventId, double weight) {
+    }
+}
@@ -10,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 import ru.practicum.grpc.stats.recommendation.*;
 import ru.practicum.handler.RecommendationHandler;
+import ru.practicum.service.RecommendationMaterializer;
 
 @Slf4j
 @GrpcService
@@ -17,13 +18,14 @@ import ru.practicum.handler.RecommendationHandler;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class AnalyzerController extends RecommendationsControllerGrpc.RecommendationsControllerImplBase {
     final RecommendationHandler handler;
+    final RecommendationMaterializer recommendationMaterializer;
 
     @Override
     public void getRecommendationsForUser(UserPredictionsRequestProto request,
                                           StreamObserver<RecommendedEventProto> responseObserver) {
         log.info("Запрос рекомендаций для пользователя: {}", request);
         try {
-            handler.getRecommendationsForUser(request).forEach(responseObserver::onNext);
+            recommendationMaterializer.getRecommendationsForUser(request).forEach(responseObserver::onNext);
             responseObserver.onCompleted();
         } catch (Exception e) {
             responseObserver.onError(new StatusRuntimeException(Status.fromThrowable(e)));
@@ -0,0 +1,65 @@
+package ru.practicum.handler;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Пакетный расчёт оценок кандидатов.
+ * Соседи всех кандидатов лежат подряд в массивах схожестей и весов действий пользователя, границы кандидата
+ * задаются массивом смещений; оценка кандидата — сумма вес × схожесть, делённая на сумму схожестей.
+ * При включённом свойстве, сборке с профилем vector и доступном модуле jdk.incubator.vector расчёт идёт
+ * через Vector API, иначе — скалярным циклом.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchScorer {
+    static final String VECTOR_MODULE = "jdk.incubator.vector";
+    static final String VECTOR_KERNEL = "ru.practicum.handler.VectorScoringKernel";
+
+    final ScoringKernel kernel;
+
+    public BatchScorer(@Value("${recommendations.scoring.vectorized:false}") boolean vectorized) {
+        this.kernel = vectorized ? loadVectorKernel() : BatchScorer::scoreScalar;
+    }
+
+    private static ScoringKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            log.warn("Модуль {} не подключён (--add-modules), используется скалярный расчёт оценок", VECTOR_MODULE);
+            return BatchScorer::scoreScalar;
+        }
+        try {
+            return (ScoringKernel) Class.forName(VECTOR_KERNEL).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            log.warn("Сервис собран без профиля vector, используется скалярный расчёт оценок");
+            return BatchScorer::scoreScalar;
+        }
+    }
+
+    /**
+     * @param similarities схожести кандидатов с событиями пользователя
+     * @param weights      веса действий пользователя с теми же событиями
+     * @param offsets      начало соседей каждого кандидата, последний элемент — общее число соседей
+     * @return оценки кандидатов в порядке смещений
+     */
+    public double[] score(double[] similarities, double[] weights, int[] offsets) {
+        double[] scores = new double[offsets.length - 1];
+        kernel.score(similarities, weights, offsets, scores);
+        return scores;
+    }
+
+    static void scoreScalar(double[] similarities, double[] weights, int[] offsets, double[] scores) {
+        for (int candidate = 0; candidate < scores.length; candidate++) {
+            double sumWeighted = 0.0;
+            double sumSim = 0.0;
+            for (int i = offsets[candidate]; i < offsets[candidate + 1]; i++) {
+                sumWeighted += weights[i] * similarities[i];
+                sumSim += similarities[i];
+            }
+            scores[candidate] = sumSim > 0 ? sumWeighted / sumSim : 0.0;
+        }
+    }
+}
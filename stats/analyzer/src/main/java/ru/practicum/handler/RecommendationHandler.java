@@ -29,6 +29,7 @@ public class RecommendationHandler {
 
     final UserActionRepository userActionRepository;
     final SimRepository similarityRepository;
+    final BatchScorer batchScorer;
 
     @Value("${user-action.view}")
     Double viewAction;
@@ -39,16 +40,28 @@ public class RecommendationHandler {
     @Value("${user-action.like}")
     Double likeAction;
 
+    // Глубина поиска не зависит от числа запрошенных рекомендаций, поэтому предрасчитанный top-N
+    // и онлайн-расчёт для любого maxResults ранжируют одних и тех же кандидатов одинаково
+    @Value("${recommendations.recent-events-limit:20}")
+    int recentEventsLimit;
+
+    @Value("${recommendations.candidate-limit:100}")
+    int candidateLimit;
+
+    @Value("${recommendations.neighbour-limit:20}")
+    int neighbourLimit;
+
     public List<RecommendedEventProto> getRecommendationsForUser(UserPredictionsRequestProto request) {
-        Long userId = request.getUserId();
-        int limit = request.getMaxResults();
+        return computeRecommendationsForUser(request.getUserId(), request.getMaxResults());
+    }
 
-        Set<Long> recentlyViewedEventIds = fetchRecentlyViewedEvents(userId, limit);
+    public List<RecommendedEventProto> computeRecommendationsForUser(Long userId, int limit) {
+        Set<Long> recentlyViewedEventIds = fetchRecentlyViewedEvents(userId, recentEventsLimit);
         if (recentlyViewedEventIds.isEmpty()) {
             return Collections.emptyList();
         }
 
-        Set<Long> candidateEventIds = findCandidateRecommendations(userId, recentlyViewedEventIds, limit);
+        Set<Long> candidateEventIds = findCandidateRecommendations(userId, recentlyViewedEventIds, candidateLimit);
         if (candidateEventIds.isEmpty()) {
             return Collections.emptyList();
         }
@@ -120,53 +133,52 @@ public class RecommendationHandler {
     private List<RecommendedEventProto> generateRecommendations(Set<Long> candidateEventIds,
                                                                 Long userId,
                                                                 int limit) {
-        Map<Long, Double> scores = new HashMap<>();
-        for (Long eventId : candidateEventIds) {
-            scores.put(eventId, calculateRecommendationScore(eventId, userId, limit));
+        // У пользователя может быть несколько действий с одним событием — учитывается самое весомое
+        Map<Long, Double> userWeights = userActionRepository.findAllByUserId(userId).stream()
+                .collect(Collectors.toMap(UserAction::getEventId, ua -> toWeight(ua.getActionType()), Math::max));
+
+        // Схожести всех кандидатов с событиями пользователя читаются двумя запросами на весь набор кандидатов
+        Map<Long, Map<Long, Double>> neighboursByCandidate = new HashMap<>();
+        for (EventSim es : similarityRepository.findAllByEventAInAndEventBIn(candidateEventIds, userWeights.keySet())) {
+            neighboursByCandidate.computeIfAbsent(es.getEventA(), id -> new HashMap<>())
+                    .merge(es.getEventB(), es.getScore(), Math::max);
+        }
+        for (EventSim es : similarityRepository.findAllByEventAInAndEventBIn(userWeights.keySet(), candidateEventIds)) {
+            neighboursByCandidate.computeIfAbsent(es.getEventB(), id -> new HashMap<>())
+                    .merge(es.getEventA(), es.getScore(), Math::max);
         }
-        return buildTopRecommendations(scores, limit);
-    }
-
-    private Double calculateRecommendationScore(Long eventId, Long userId, int neighborsLimit) {
-        List<EventSim> similaritiesA = fetchSimilaritiesByEventA(eventId, neighborsLimit);
-        List<EventSim> similaritiesB = fetchSimilaritiesByEventB(eventId, neighborsLimit);
-
-        Map<Long, Double> viewedSimilarityScores = collectViewedSimilarities(similaritiesA, true, userId);
-        viewedSimilarityScores.putAll(collectViewedSimilarities(similaritiesB, false, userId));
-
-        if (viewedSimilarityScores.isEmpty()) return 0.0;
-
-        Map<Long, Double> userWeights = userActionRepository.findAllByEventIdInAndUserId(viewedSimilarityScores.keySet(), userId)
-                .stream().collect(Collectors.toMap(UserAction::getEventId, ua -> toWeight(ua.getActionType())));
-
-        return calculateWeightedScore(viewedSimilarityScores, userWeights);
-    }
 
-    private Map<Long, Double> collectViewedSimilarities(List<EventSim> similarities,
-                                                        boolean isEventB,
-                                                        Long userId) {
-        Map<Long, Double> result = new HashMap<>();
-        for (EventSim es : similarities) {
-            Long relatedEventId = isEventB ? es.getEventB() : es.getEventA();
-            if (relatedEventId != null && userActionRepository.existsByEventIdAndUserId(relatedEventId, userId)) {
-                result.put(relatedEventId, es.getScore());
+        // Ближайшие соседи каждого кандидата раскладываются подряд в общие массивы
+        Long[] candidates = candidateEventIds.toArray(Long[]::new);
+        int[] offsets = new int[candidates.length + 1];
+        double[] similarities = new double[Math.max(candidates.length, 16)];
+        double[] weights = new double[similarities.length];
+        int size = 0;
+        for (int i = 0; i < candidates.length; i++) {
+            List<Map.Entry<Long, Double>> neighbours = neighboursByCandidate.getOrDefault(candidates[i], Map.of())
+                    .entrySet().stream()
+                    .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                    .limit(neighbourLimit)
+                    .toList();
+            if (size + neighbours.size() > similarities.length) {
+                int capacity = Math.max(similarities.length * 2, size + neighbours.size());
+                similarities = Arrays.copyOf(similarities, capacity);
+                weights = Arrays.copyOf(weights, capacity);
             }
-        }
-        return result;
-    }
-
-    private double calculateWeightedScore(Map<Long, Double> similarityScores,
-                                          Map<Long, Double> userWeights) {
-        double sumWeighted = 0.0;
-        double sumSim = 0.0;
-        for (Map.Entry<Long, Double> entry : similarityScores.entrySet()) {
-            Double weight = userWeights.get(entry.getKey());
-            if (weight != null) {
-                sumWeighted += weight * entry.getValue();
-                sumSim += entry.getValue();
+            for (Map.Entry<Long, Double> neighbour : neighbours) {
+                similarities[size] = neighbour.getValue();
+                weights[size] = userWeights.get(neighbour.getKey());
+                size++;
             }
+            offsets[i + 1] = size;
+        }
+
+        double[] scores = batchScorer.score(similarities, weights, offsets);
+        Map<Long, Double> result = new HashMap<>();
+        for (int i = 0; i < candidates.length; i++) {
+            result.put(candidates[i], scores[i]);
         }
-        return sumSim > 0 ? sumWeighted / sumSim : 0.0;
+        return buildTopRecommendations(result, limit);
     }
 
     private List<RecommendedEventProto> buildTopRecommendations(Map<Long, Double> scores, int limit) {
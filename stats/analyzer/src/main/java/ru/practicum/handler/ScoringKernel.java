@@ -0,0 +1,8 @@
+package ru.practicum.handler;
+
+/**
+ * Расчёт оценок кандидатов по соседям, разложенным подряд в общих массивах.
+ */
+interface ScoringKernel {
+    void score(double[] similarities, double[] weights, int[] offsets, double[] scores);
+}
@@ -8,6 +8,7 @@ import org.springframework.stereotype.Component;
 import ru.practicum.ewm.stats.avro.EventSimilarityAvro;
 import ru.practicum.model.EventSim;
 import ru.practicum.repository.SimRepository;
+import ru.practicum.service.RecommendationMaterializer;
 
 @Slf4j
 @Component
@@ -15,6 +16,7 @@ import ru.practicum.repository.SimRepository;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class SimilarityHandler {
     final SimRepository simRepository;
+    final RecommendationMaterializer recommendationMaterializer;
 
     public void handle(EventSimilarityAvro avro) {
         log.info("Сохранение схожести: {}", avro);
@@ -25,5 +27,6 @@ public class SimilarityHandler {
                 .timestamp(avro.getTimestamp())
                 .build();
         simRepository.save(similarity);
+        recommendationMaterializer.onSimilarityChanged(avro.getEventA(), avro.getEventB());
     }
 }
\ No newline at end of file
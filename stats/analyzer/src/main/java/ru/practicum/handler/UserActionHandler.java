@@ -9,6 +9,7 @@ import ru.practicum.ewm.stats.avro.UserActionAvro;
 import ru.practicum.model.ActionType;
 import ru.practicum.model.UserAction;
 import ru.practicum.repository.UserActionRepository;
+import ru.practicum.service.RecommendationMaterializer;
 import org.springframework.beans.factory.annotation.Value;
 
 import java.util.Optional;
@@ -19,6 +20,7 @@ import java.util.Optional;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class UserActionHandler {
     final UserActionRepository userActionRepository;
+    final RecommendationMaterializer recommendationMaterializer;
 
     @Value("${user-action.view}")
     Double viewAction;
@@ -51,6 +53,7 @@ public class UserActionHandler {
                 userAction.setActionType(ActionType.valueOf(avro.getActionType().name()));
                 userAction.setTimestamp(avro.getTimestamp());
                 userActionRepository.save(userAction);
+                recommendationMaterializer.onUserAction(userAction.getUserId());
             }
         } else {
             UserAction userAction = UserAction.builder()
@@ -60,6 +63,7 @@ public class UserActionHandler {
                     .timestamp(avro.getTimestamp())
                     .build();
             userActionRepository.save(userAction);
+            recommendationMaterializer.onUserAction(userAction.getUserId());
         }
     }
 
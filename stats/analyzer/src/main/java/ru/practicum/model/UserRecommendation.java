@@ -0,0 +1,29 @@
+package ru.practicum.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+@Entity
+@Table(name = "user_recommendations",
+        indexes = @Index(name = "ix_user_recommendations_user_score", columnList = "user_id, score"))
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class UserRecommendation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @Column(name = "user_id", nullable = false)
+    Long userId;
+
+    @Column(name = "event_id", nullable = false)
+    Long eventId;
+
+    @Column(name = "score", nullable = false)
+    Double score;
+}
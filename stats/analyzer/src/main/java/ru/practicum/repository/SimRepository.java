@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.EventSim;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -17,4 +18,6 @@ public interface SimRepository extends JpaRepository<EventSim, Long> {
     List<EventSim> findAllByEventAIn(Set<Long> eventIds, PageRequest pageRequest);
 
     List<EventSim> findAllByEventBIn(Set<Long> eventIds, PageRequest pageRequest);
+
+    List<EventSim> findAllByEventAInAndEventBIn(Collection<Long> eventAIds, Collection<Long> eventBIds);
 }
\ No newline at end of file
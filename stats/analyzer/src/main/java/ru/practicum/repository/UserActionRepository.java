@@ -2,9 +2,12 @@ package ru.practicum.repository;
 
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.practicum.model.UserAction;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -19,5 +22,13 @@ public interface UserActionRepository extends JpaRepository<UserAction, Long> {
 
     List<UserAction> findAllByEventIdIn(Set<Long> eventIds);
 
+    List<UserAction> findAllByUserId(Long userId);
+
     boolean existsByEventIdAndUserId(Long eventId, Long userId);
+
+    @Query("SELECT DISTINCT ua.userId FROM UserAction ua WHERE ua.eventId IN :eventIds")
+    List<Long> findUserIdsByEventIdIn(@Param("eventIds") Collection<Long> eventIds);
+
+    @Query("SELECT DISTINCT ua.userId FROM UserAction ua")
+    List<Long> findAllUserIds();
 }
\ No newline at end of file
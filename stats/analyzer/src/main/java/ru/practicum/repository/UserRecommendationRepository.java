@@ -0,0 +1,20 @@
+package ru.practicum.repository;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.practicum.model.UserRecommendation;
+
+import java.util.List;
+
+@Repository
+public interface UserRecommendationRepository extends JpaRepository<UserRecommendation, Long> {
+    List<UserRecommendation> findAllByUserId(Long userId, PageRequest pageRequest);
+
+    @Modifying
+    @Query("DELETE FROM UserRecommendation r WHERE r.userId = :userId")
+    void deleteAllByUserId(@Param("userId") Long userId);
+}
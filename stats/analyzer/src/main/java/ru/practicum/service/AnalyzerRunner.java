@@ -3,6 +3,7 @@ package ru.practicum.service;
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
@@ -13,11 +14,14 @@ public class AnalyzerRunner implements CommandLineRunner {
     final UserActionProcessor userActionProcessor;
     final SimilarityProcessor similarityProcessor;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    boolean virtualThreads;
+
     @Override
-    public void run(String... args) {
-        Thread userActionThread = new Thread(userActionProcessor);
-        userActionThread.setName("UserActionHandlerThread");
-        userActionThread.start();
-        similarityProcessor.start();
+    public void run(String... args) throws InterruptedException {
+        Thread.Builder builder = virtualThreads ? Thread.ofVirtual() : Thread.ofPlatform();
+        builder.name("UserActionHandlerThread").start(userActionProcessor);
+        // Цикл сходства тоже идёт в отдельном потоке, а поток запуска ждёт его завершения, как раньше
+        builder.name("SimilarityHandlerThread").start(similarityProcessor::start).join();
     }
 }
\ No newline at end of file
@@ -0,0 +1,212 @@
+package ru.practicum.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.grpc.stats.recommendation.RecommendedEventProto;
+import ru.practicum.grpc.stats.recommendation.UserPredictionsRequestProto;
+import ru.practicum.handler.RecommendationHandler;
+import ru.practicum.model.UserRecommendation;
+import ru.practicum.repository.UserActionRepository;
+import ru.practicum.repository.UserRecommendationRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Предрасчёт рекомендаций пользователей в таблицу user_recommendations.
+ * Новое действие пользователя или изменение схожести событий, с которыми он взаимодействовал, помечает пользователя
+ * устаревшим; фоновая задача пересчитывает top-N только для помеченных пользователей.
+ * Изменённые события копятся между запусками фоновой задачи, и их пользователи находятся одним запросом за запуск,
+ * а не запросом на каждое сообщение о схожести.
+ * Онлайн-запрос читает готовую таблицу, а для пользователей, ожидающих пересчёта, считает рекомендации сразу.
+ * Задержка между изменением и пересчётом пишется в метрику analyzer.recommendations.freshness-lag.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class RecommendationMaterializer {
+    final RecommendationHandler recommendationHandler;
+    final UserActionRepository userActionRepository;
+    final UserRecommendationRepository userRecommendationRepository;
+    final TransactionTemplate transactionTemplate;
+    final boolean enabled;
+    final int topN;
+    final int batchSize;
+    final long intervalMillis;
+    final Timer freshnessLag;
+
+    final Map<Long, Instant> dirtyUsers = new ConcurrentHashMap<>();
+    final Map<Long, Instant> changedEvents = new ConcurrentHashMap<>();
+    final Set<Long> computingUsers = ConcurrentHashMap.newKeySet();
+    ScheduledExecutorService refresher;
+
+    public RecommendationMaterializer(RecommendationHandler recommendationHandler,
+                                      UserActionRepository userActionRepository,
+                                      UserRecommendationRepository userRecommendationRepository,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${recommendations.materialization.enabled:false}") boolean enabled,
+                                      @Value("${recommendations.materialization.top-n:50}") int topN,
+                                      @Value("${recommendations.materialization.batch-size:500}") int batchSize,
+                                      @Value("${recommendations.materialization.interval-ms:1000}") long intervalMillis) {
+        this.recommendationHandler = recommendationHandler;
+        this.userActionRepository = userActionRepository;
+        this.userRecommendationRepository = userRecommendationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.topN = topN;
+        this.batchSize = batchSize;
+        this.intervalMillis = intervalMillis;
+        this.freshnessLag = meterRegistry.timer("analyzer.recommendations.freshness-lag");
+        meterRegistry.gaugeMapSize("analyzer.recommendations.dirty-users", List.of(), dirtyUsers);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        // Состояние устаревших пользователей не переживает рестарт, поэтому при старте пересчитываются все
+        Instant now = Instant.now();
+        userActionRepository.findAllUserIds().forEach(userId -> dirtyUsers.putIfAbsent(userId, now));
+        log.info("Предрасчёт рекомендаций включён, пользователей к пересчёту: {}", dirtyUsers.size());
+        refresher = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "recommendation-materializer"));
+        refresher.scheduleWithFixedDelay(this::refreshQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (refresher != null) {
+            refresher.shutdown();
+        }
+    }
+
+    public List<RecommendedEventProto> getRecommendationsForUser(UserPredictionsRequestProto request) {
+        Long userId = request.getUserId();
+        if (!enabled || request.getMaxResults() > topN
+                || dirtyUsers.containsKey(userId) || computingUsers.contains(userId)) {
+            return recommendationHandler.getRecommendationsForUser(request);
+        }
+        return userRecommendationRepository.findAllByUserId(userId,
+                        PageRequest.of(0, request.getMaxResults(), Sort.by(Sort.Direction.DESC, "score")))
+                .stream()
+                .map(recommendation -> RecommendedEventProto.newBuilder()
+                        .setEventId(recommendation.getEventId())
+                        .setScore(recommendation.getScore())
+                        .build())
+                .toList();
+    }
+
+    public void onUserAction(Long userId) {
+        if (enabled) {
+            dirtyUsers.putIfAbsent(userId, Instant.now());
+        }
+    }
+
+    public void onSimilarityChanged(Long eventA, Long eventB) {
+        if (!enabled) {
+            return;
+        }
+        // Схожесть влияет на кандидатов и веса всех пользователей, взаимодействовавших с любым из событий
+        Instant now = Instant.now();
+        changedEvents.putIfAbsent(eventA, now);
+        changedEvents.putIfAbsent(eventB, now);
+    }
+
+    private void markUsersOfChangedEvents() {
+        Map<Long, Instant> events = new HashMap<>();
+        Iterator<Map.Entry<Long, Instant>> iterator = changedEvents.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Long, Instant> entry = iterator.next();
+            events.put(entry.getKey(), entry.getValue());
+            iterator.remove();
+        }
+        if (events.isEmpty()) {
+            return;
+        }
+        // Время самого раннего изменения делает метрику задержки консервативной
+        Instant changedAt = Collections.min(events.values());
+        try {
+            userActionRepository.findUserIdsByEventIdIn(events.keySet())
+                    .forEach(userId -> dirtyUsers.putIfAbsent(userId, changedAt));
+        } catch (RuntimeException e) {
+            events.forEach(changedEvents::putIfAbsent);
+            throw e;
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.error("Не удалось пересчитать рекомендации пользователей", e);
+        }
+    }
+
+    private void refresh() {
+        markUsersOfChangedEvents();
+        List<Map.Entry<Long, Instant>> batch = new ArrayList<>();
+        Iterator<Map.Entry<Long, Instant>> iterator = dirtyUsers.entrySet().iterator();
+        while (iterator.hasNext() && batch.size() < batchSize) {
+            Map.Entry<Long, Instant> entry = iterator.next();
+            computingUsers.add(entry.getKey());
+            batch.add(Map.entry(entry.getKey(), entry.getValue()));
+            iterator.remove();
+        }
+
+        for (Map.Entry<Long, Instant> entry : batch) {
+            Long userId = entry.getKey();
+            try {
+                materialize(userId);
+                freshnessLag.record(Duration.between(entry.getValue(), Instant.now()));
+            } catch (RuntimeException e) {
+                // Пользователь остаётся устаревшим и будет пересчитан при следующем запуске
+                dirtyUsers.putIfAbsent(userId, entry.getValue());
+                log.error("Не удалось пересчитать рекомендации пользователя {}", userId, e);
+            } finally {
+                computingUsers.remove(userId);
+            }
+        }
+        if (!batch.isEmpty()) {
+            log.debug("Пересчитаны рекомендации пользователей: {}", batch.size());
+        }
+    }
+
+    private void materialize(Long userId) {
+        List<UserRecommendation> recommendations = recommendationHandler.computeRecommendationsForUser(userId, topN)
+                .stream()
+                .map(recommendation -> UserRecommendation.builder()
+                        .userId(userId)
+                        .eventId(recommendation.getEventId())
+                        .score(recommendation.getScore())
+                        .build())
+                .toList();
+        transactionTemplate.executeWithoutResult(status -> {
+            userRecommendationRepository.deleteAllByUserId(userId);
+            userRecommendationRepository.saveAll(recommendations);
+        });
+    }
+}
@@ -0,0 +1,39 @@
+package ru.practicum.handler;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Расчёт оценок через Vector API. Собирается только в профиле vector и загружается
+ * по имени класса при подключённом модуле jdk.incubator.vector.
+ */
+final class VectorScoringKernel implements ScoringKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+    @Override
+    public void score(double[] similarities, double[] weights, int[] offsets, double[] scores) {
+        for (int candidate = 0; candidate < scores.length; candidate++) {
+            int from = offsets[candidate];
+            int to = offsets[candidate + 1];
+            int bound = from + SPECIES.loopBound(to - from);
+
+            DoubleVector weighted = DoubleVector.zero(SPECIES);
+            DoubleVector total = DoubleVector.zero(SPECIES);
+            int i = from;
+            for (; i < bound; i += SPECIES.length()) {
+                DoubleVector sim = DoubleVector.fromArray(SPECIES, similarities, i);
+                DoubleVector weight = DoubleVector.fromArray(SPECIES, weights, i);
+                weighted = sim.fma(weight, weighted);
+                total = total.add(sim);
+            }
+            double sumWeighted = weighted.reduceLanes(VectorOperators.ADD);
+            double sumSim = total.reduceLanes(VectorOperators.ADD);
+            for (; i < to; i++) {
+                sumWeighted += weights[i] * similarities[i];
+                sumSim += similarities[i];
+            }
+            scores[candidate] = sumSim > 0 ? sumWeighted / sumSim : 0.0;
+        }
+    }
+}
@@ -1,14 +1,17 @@
 package ru.practicum;
 
+import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
 import ru.practicum.grpc.stats.recommendation.*;
 
+import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Spliterator;
 import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
 
@@ -18,6 +21,9 @@ public class RecomendationClient {
     @GrpcClient("analyzer")
     RecommendationsControllerGrpc.RecommendationsControllerBlockingStub client;
 
+    @GrpcClient("analyzer")
+    RecommendationsControllerGrpc.RecommendationsControllerStub asyncClient;
+
     public Stream<RecommendedEventProto> getRecommendationsForUser(long userId, int maxResults) {
         try {
             UserPredictionsRequestProto request = UserPredictionsRequestProto.newBuilder()
@@ -32,6 +38,33 @@ public class RecomendationClient {
         }
     }
 
+    /**
+     * Неблокирующий вариант {@link #getRecommendationsForUser}: рекомендации собираются из потока ответов,
+     * при ошибке возвращается пустой список.
+     */
+    public CompletableFuture<List<RecommendedEventProto>> getRecommendationsForUserAsync(long userId, int maxResults) {
+        UserPredictionsRequestProto request = UserPredictionsRequestProto.newBuilder()
+                .setUserId(userId)
+                .setMaxResults(maxResults)
+                .build();
+        CollectingObserver observer = new CollectingObserver("Ошибка при получения рекомендаций пользователя: " + userId);
+        asyncClient.getRecommendationsForUser(request, observer);
+        return observer.result;
+    }
+
+    /**
+     * Неблокирующий вариант {@link #getInteractionsCount}, при ошибке возвращается пустой список.
+     */
+    public CompletableFuture<List<RecommendedEventProto>> getInteractionsCountAsync(List<Long> eventIds) {
+        InteractionsCountRequestProto request = InteractionsCountRequestProto.newBuilder()
+                .addAllEventId(eventIds)
+                .build();
+        CollectingObserver observer =
+                new CollectingObserver("Ошибка при подсчете количества взаимодействий для событий " + eventIds);
+        asyncClient.getInteractionsCount(request, observer);
+        return observer.result;
+    }
+
     public Stream<RecommendedEventProto> getSimilarEvents(long eventId, long userId, int maxResults) {
         try {
             SimilarEventsRequestProto request = SimilarEventsRequestProto.newBuilder()
@@ -60,6 +93,32 @@ public class RecomendationClient {
         }
     }
 
+    private static class CollectingObserver implements StreamObserver<RecommendedEventProto> {
+        final CompletableFuture<List<RecommendedEventProto>> result = new CompletableFuture<>();
+        final List<RecommendedEventProto> events = new ArrayList<>();
+        final String errorMessage;
+
+        CollectingObserver(String errorMessage) {
+            this.errorMessage = errorMessage;
+        }
+
+        @Override
+        public void onNext(RecommendedEventProto value) {
+            events.add(value);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            log.error(errorMessage, t);
+            result.complete(List.of());
+        }
+
+        @Override
+        public void onCompleted() {
+            result.complete(events);
+        }
+    }
+
     private Stream<RecommendedEventProto> asStream(Iterator<RecommendedEventProto> iterator) {
         return StreamSupport.stream(
                 Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
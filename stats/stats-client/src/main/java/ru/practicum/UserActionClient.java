@@ -1,6 +1,8 @@
 package ru.practicum;
 
+import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
+import io.grpc.stub.StreamObserver;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
 import org.springframework.stereotype.Service;
@@ -16,22 +18,47 @@ public class UserActionClient {
     @GrpcClient("collector")
     UserActionControllerGrpc.UserActionControllerBlockingStub client;
 
+    @GrpcClient("collector")
+    UserActionControllerGrpc.UserActionControllerStub asyncClient;
+
     public void collectUserAction(long userId, long eventId, ActionTypeProto actionType, Instant instant) {
         try {
-            Timestamp timestamp = Timestamp.newBuilder()
-                    .setSeconds(instant.getEpochSecond())
-                    .setNanos(instant.getNano())
-                    .build();
-            UserActionProto request = UserActionProto.newBuilder()
-                    .setUserId(userId)
-                    .setEventId(eventId)
-                    .setActionType(actionType)
-                    .setTimestamp(timestamp)
-                    .build();
-
-            client.collectUserAction(request);
+            client.collectUserAction(toProto(userId, eventId, actionType, instant));
         } catch (Exception e) {
             log.error("Error while sending request", e);
         }
     }
+
+    /**
+     * Отправляет действие пользователя без ожидания ответа коллектора.
+     */
+    public void collectUserActionAsync(long userId, long eventId, ActionTypeProto actionType, Instant instant) {
+        asyncClient.collectUserAction(toProto(userId, eventId, actionType, instant), new StreamObserver<>() {
+            @Override
+            public void onNext(Empty value) {
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.error("Error while sending request", t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+    }
+
+    private UserActionProto toProto(long userId, long eventId, ActionTypeProto actionType, Instant instant) {
+        Timestamp timestamp = Timestamp.newBuilder()
+                .setSeconds(instant.getEpochSecond())
+                .setNanos(instant.getNano())
+                .build();
+        return UserActionProto.newBuilder()
+                .setUserId(userId)
+                .setEventId(eventId)
+                .setActionType(actionType)
+                .setTimestamp(timestamp)
+                .build();
+    }
 }
\ No newline at end of file